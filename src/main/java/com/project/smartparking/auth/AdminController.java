@@ -1,6 +1,7 @@
 package com.project.smartparking.auth;
 
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;  
 
 import com.project.smartparking.repository.UserRepository;
@@ -20,15 +21,21 @@ import org.springframework.http.HttpStatus;
 public class AdminController {
     
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JwtService jwtService;
+    private final TokenVersions tokenVersions;
+    private final UserCache userCache;
     
     public AdminController(UserRepository userRepository, 
-                           PasswordEncoder passwordEncoder,
-                           JwtService jwtService) {
+                           PasswordHasher passwordHasher,
+                           JwtService jwtService,
+                           TokenVersions tokenVersions,
+                           UserCache userCache) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
         this.jwtService = jwtService;
+        this.tokenVersions = tokenVersions;
+        this.userCache = userCache;
     }
     
     /**
@@ -36,24 +43,8 @@ public class AdminController {
      * Only existing admins can create other admin users
      */
     @PostMapping("/register")
-    public ResponseEntity<?> register(
-            @RequestHeader("Authorization") String authHeader,
-            @Valid @RequestBody AdminDtos.AdminRegisterRequest req) {
-        
-        // Verify token and check if user is admin
-        String adminEmail = extractEmailFromToken(authHeader);
-        if (adminEmail == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body("Invalid or expired token");
-        }
-        
-        // Verify the user making the request is an admin
-        User adminUser = userRepository.findByEmail(adminEmail);
-        if (adminUser == null || !"ADMIN".equals(adminUser.getRole())) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                    .body("Only existing admins can create new admin accounts");
-        }
-        
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> register(@Valid @RequestBody AdminDtos.AdminRegisterRequest req) {
         // Check if email already exists
         if (userRepository.existsByEmail(req.getEmail())) {
             return ResponseEntity.status(HttpStatus.CONFLICT)
@@ -66,12 +57,13 @@ public class AdminController {
         user.setLastName(req.getLastName());
         user.setEmail(req.getEmail());
         user.setMobileNo(req.getMobileNo());
-        user.setPassword(passwordEncoder.encode(req.getPassword()));
+        user.setPassword(passwordHasher.encode(req.getPassword()));
         user.setRole("ADMIN");  // Set role to ADMIN
         
         userRepository.save(user);
+        userCache.invalidate(user.getEmail());
         
-        String token = jwtService.generateToken(user.getEmail());
+        String token = jwtService.generateToken(user);
         return ResponseEntity.ok(new AdminDtos.AdminTokenResponse(token, "ADMIN"));
     }
     
@@ -80,10 +72,10 @@ public class AdminController {
      */
     @PostMapping("/login")
     public ResponseEntity<?> login(@Valid @RequestBody AdminDtos.AdminLoginRequest req) {
-        User user = userRepository.findByEmail(req.getEmail());
+        User user = userCache.findByEmail(req.getEmail());
         
         // Check if user exists, password matches, and role is ADMIN
-        if (user == null || !passwordEncoder.matches(req.getPassword(), user.getPassword())) {
+        if (user == null || !passwordHasher.matches(req.getPassword(), user.getPassword())) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body("Invalid email or password");
         }
@@ -93,47 +85,25 @@ public class AdminController {
                     .body("Access denied: Admin privileges required");
         }
         
-        String token = jwtService.generateToken(user.getEmail());
+        String token = jwtService.generateToken(user);
         return ResponseEntity.ok(new AdminDtos.AdminTokenResponse(token, user.getRole()));
     }
     
     /**
-     * Get admin details from the JWT token
+     * Get the details of the authenticated admin
      */
     @GetMapping
-    public ResponseEntity<?> getAdminDetails(@RequestHeader("Authorization") String authHeader) {
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getAdminDetails(@AuthenticationPrincipal AuthenticatedUser caller) {
         try {
-            // Extract email from token
-            String email = extractEmailFromToken(authHeader);
-            if (email == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body("Invalid or expired token");
-            }
-            
-            // Find user by email
-            User user = userRepository.findByEmail(email);
+            // Find user by id
+            User user = userRepository.findById(caller.getId()).orElse(null);
             if (user == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body("User not found");
             }
             
-            // Check if user is admin
-            if (!"ADMIN".equals(user.getRole())) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body("Access denied: Admin privileges required");
-            }
-            
-            // Create and return admin details response
-            AdminDtos.AdminDetailsResponse response = new AdminDtos.AdminDetailsResponse(
-                user.getId(),
-                user.getFirstName(),
-                user.getLastName(),
-                user.getEmail(),
-                user.getMobileNo(),
-                user.getRole()
-            );
-            
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(toDetailsResponse(user));
             
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -142,21 +112,61 @@ public class AdminController {
     }
     
     /**
-     * Extract email from JWT token
+     * Change a user's role
+     * Tokens issued before the change are revoked, so the new role applies on the user's next login
      */
-    private String extractEmailFromToken(String authHeader) {
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            return null;
+    @PutMapping("/users/{id}/role")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> changeRole(
+            @AuthenticationPrincipal AuthenticatedUser caller,
+            @PathVariable Long id,
+            @Valid @RequestBody AdminDtos.RoleChangeRequest req) {
+        // An admin demoting themselves could leave the system without admins
+        if (caller.getId().equals(id)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Admins cannot change their own role");
         }
-
-        String token = authHeader.substring(7);
-        String email = jwtService.extractUsername(token);
         
-        // Validate token
-        if (!jwtService.validateToken(token, email)) {
-            return null;
+        User user = userRepository.findById(id).orElse(null);
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body("User not found");
         }
-
-        return email;
+        
+        user.setRole(req.getRole());
+        userRepository.save(user);
+        user.setTokenVersion(tokenVersions.revoke(id));
+        // After the revocation, so a concurrent lookup cannot re-cache the old role
+        userCache.invalidate(user.getEmail());
+        
+        return ResponseEntity.ok(toDetailsResponse(user));
+    }
+    
+    /**
+     * Revoke every token issued to a user so far, e.g. after a leaked token or a lost device
+     */
+    @PostMapping("/users/{id}/revoke-tokens")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> revokeTokens(@PathVariable Long id) {
+        User user = userRepository.findById(id).orElse(null);
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body("User not found");
+        }
+        
+        tokenVersions.revoke(id);
+        userCache.invalidate(user.getEmail());
+        return ResponseEntity.ok("Tokens revoked");
+    }
+    
+    private AdminDtos.AdminDetailsResponse toDetailsResponse(User user) {
+        return new AdminDtos.AdminDetailsResponse(
+            user.getId(),
+            user.getFirstName(),
+            user.getLastName(),
+            user.getEmail(),
+            user.getMobileNo(),
+            user.getRole()
+        );
     }
 }
@@ -58,6 +58,16 @@ public class AdminDtos {
         public void setPassword(String password) { this.password = password; }
     }
     
+    public static class RoleChangeRequest {
+        @NotBlank(message = "Role is required")
+        @Pattern(regexp = "USER|ADMIN", message = "Role must be USER or ADMIN")
+        private String role;
+        
+        // Getters and setters
+        public String getRole() { return role; }
+        public void setRole(String role) { this.role = role; }
+    }
+    
     public static class AdminTokenResponse {
         private String token;
         private String role;
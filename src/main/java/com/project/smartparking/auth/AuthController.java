@@ -1,6 +1,7 @@
 package com.project.smartparking.auth;
 
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;	
 
 import com.project.smartparking.repository.UserRepository;
@@ -16,15 +17,21 @@ import org.springframework.http.HttpStatus;
 public class AuthController {
     
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JwtService jwtService;
+    private final UserCache userCache;
+    private final TokenVersions tokenVersions;
     
     public AuthController(UserRepository userRepository, 
-                         PasswordEncoder passwordEncoder,
-                         JwtService jwtService) {
+                         PasswordHasher passwordHasher,
+                         JwtService jwtService,
+                         UserCache userCache,
+                         TokenVersions tokenVersions) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
         this.jwtService = jwtService;
+        this.userCache = userCache;
+        this.tokenVersions = tokenVersions;
     }
     
     @PostMapping("/register")
@@ -38,22 +45,47 @@ public class AuthController {
         user.setLastName(req.lastName);
         user.setEmail(req.email);
         user.setMobileNo(req.mobileNo);
-        user.setPassword(passwordEncoder.encode(req.password)); // ✅ Encoded password
+        user.setPassword(passwordHasher.encode(req.password)); // ✅ Encoded password
         userRepository.save(user);
+        userCache.invalidate(user.getEmail());
         
-        String token = jwtService.generateToken(user.getEmail());
+        String token = jwtService.generateToken(user);
         return ResponseEntity.ok(new AuthDtos.TokenResponse(token));
     }
     
     // For login endpoint, you'll need to verify passwords like this:
     @PostMapping("/login")
     public ResponseEntity<AuthDtos.TokenResponse> login(@Valid @RequestBody AuthDtos.LoginRequest req) {
-        User user = userRepository.findByEmail(req.email);
-        if (user == null || !passwordEncoder.matches(req.password, user.getPassword())) {
+        User user = userCache.findByEmail(req.email);
+        if (user == null || !passwordHasher.matches(req.password, user.getPassword())) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
         
-        String token = jwtService.generateToken(user.getEmail());
+        String token = jwtService.generateToken(user);
+        return ResponseEntity.ok(new AuthDtos.TokenResponse(token));
+    }
+    
+    /**
+     * Change the caller's password
+     * Every token issued before the change is revoked; the response carries a new one
+     */
+    @PutMapping("/password")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<AuthDtos.TokenResponse> changePassword(
+            @AuthenticationPrincipal AuthenticatedUser caller,
+            @Valid @RequestBody AuthDtos.PasswordChangeRequest req) {
+        User user = userRepository.findById(caller.getId()).orElse(null);
+        if (user == null || !passwordHasher.matches(req.currentPassword, user.getPassword())) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        user.setPassword(passwordHasher.encode(req.newPassword));
+        userRepository.save(user);
+        user.setTokenVersion(tokenVersions.revoke(user.getId()));
+        // After the revocation, so a concurrent lookup cannot re-cache the old password hash
+        userCache.invalidate(user.getEmail());
+        
+        String token = jwtService.generateToken(user);
         return ResponseEntity.ok(new AuthDtos.TokenResponse(token));
     }
 }
\ No newline at end of file
@@ -16,6 +16,11 @@ public class AuthDtos {
 		@NotBlank public String password;
 	}
 
+	public static class PasswordChangeRequest {
+		@NotBlank public String currentPassword;
+		@NotBlank public String newPassword;
+	}
+
 	public static class TokenResponse {
 		public String token;
 		public TokenResponse(String token) { this.token = token; }
@@ -0,0 +1,46 @@
+package com.project.smartparking.auth;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * The caller of a request, put into the SecurityContext by JwtAuthenticationFilter.
+ * Controllers receive it with @AuthenticationPrincipal, so neither they nor the services
+ * parse the token or look the user up again.
+ */
+public class AuthenticatedUser implements Principal {
+
+	public static final String ROLE_ADMIN = "ADMIN";
+
+	private final Long id;
+	private final String email;
+	private final String role;
+
+	public AuthenticatedUser(Long id, String email, String role) {
+		this.id = id;
+		this.email = email;
+		this.role = role;
+	}
+
+	public Long getId() { return id; }
+
+	public String getEmail() { return email; }
+
+	public String getRole() { return role; }
+
+	public boolean isAdmin() {
+		return ROLE_ADMIN.equals(role);
+	}
+
+	public List<GrantedAuthority> getAuthorities() {
+		return List.of(new SimpleGrantedAuthority("ROLE_" + role));
+	}
+
+	@Override
+	public String getName() {
+		return email;
+	}
+}
@@ -1,16 +1,38 @@
 package com.project.smartparking.auth;
 
+import com.project.smartparking.repository.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
+/**
+ * Issues and verifies JWTs.
+ * The signing key and parser are built once. Verified tokens are kept in a bounded cache keyed
+ * by the token's SHA-256 digest until their exp claim passes, so a client repeating the same token skips
+ * signature verification and JSON parsing entirely.
+ */
 @Service
 public class JwtService {
 
@@ -20,6 +42,69 @@ public class JwtService {
 	@Value("${app.jwt.expMs:86400000}")
 	private long expirationMs;
 
+	@Value("${app.jwt.cache-size:10000}")
+	private int cacheSize;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private TokenVersions tokenVersions;
+
+	private Key signingKey;
+
+	private JwtParser parser;
+
+	private Cache<String, VerifiedToken> verified;
+
+	private Counter cacheHits;
+
+	private Counter cacheMisses;
+
+	@PostConstruct
+	void init() {
+		signingKey = signingKey();
+		parser = Jwts.parserBuilder()
+			.setSigningKey(signingKey)
+			.build();
+		verified = Caffeine.newBuilder()
+			.maximumSize(cacheSize)
+			.expireAfter(new Expiry<String, VerifiedToken>() {
+				@Override
+				public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+					return remainingNanos(token);
+				}
+
+				@Override
+				public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+					return remainingNanos(token);
+				}
+
+				@Override
+				public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+					return currentDuration;
+				}
+			})
+			.build();
+		cacheHits = Counter.builder("jwt.verify.cache")
+			.tag("result", "hit")
+			.description("Token verifications answered from the verified-token cache")
+			.register(meterRegistry);
+		cacheMisses = Counter.builder("jwt.verify.cache")
+			.tag("result", "miss")
+			.description("Token verifications that checked the signature")
+			.register(meterRegistry);
+	}
+
+	// Entries leave the cache when their token's exp claim passes; tokens without one stay until evicted for size
+	private static long remainingNanos(VerifiedToken token) {
+		Date expiration = token.getExpiration();
+		if (expiration == null) {
+			return Long.MAX_VALUE;
+		}
+		return TimeUnit.MILLISECONDS.toNanos(Math.max(0, expiration.getTime() - System.currentTimeMillis()));
+	}
+
 	private Key signingKey() {
 		// Use the secret key directly as bytes, ensuring it's at least 256 bits (32 bytes) for HS256
 		byte[] keyBytes = secretKey.getBytes();
@@ -32,46 +117,71 @@ public class JwtService {
 		return Keys.hmacShaKeyFor(keyBytes);
 	}
 
-	public String generateToken(String subject) {
+	/**
+	 * Issue a token naming the user, their role and current token version, so requests carrying it
+	 * are authorized from its claims alone
+	 */
+	public String generateToken(User user) {
 		Date now = new Date();
 		Date exp = new Date(now.getTime() + expirationMs);
 		return Jwts.builder()
-			.setSubject(subject)
+			.setSubject(user.getEmail())
+			.claim(VerifiedToken.USER_ID_CLAIM, user.getId())
+			.claim(VerifiedToken.ROLE_CLAIM, user.getRole())
+			.claim(VerifiedToken.TOKEN_VERSION_CLAIM, tokenVersions.current(user))
 			.setIssuedAt(now)
 			.setExpiration(exp)
-			.signWith(signingKey(), SignatureAlgorithm.HS256)
+			.signWith(signingKey, SignatureAlgorithm.HS256)
 			.compact();
 	}
 
+	/**
+	 * Check the token's signature and expiry once and return its claims
+	 * @throws JwtException if the token is malformed, forged or expired
+	 */
+	public VerifiedToken verify(String token) {
+		String key = digest(token);
+		VerifiedToken cached = verified.getIfPresent(key);
+		if (cached != null) {
+			if (!cached.isExpired()) {
+				cacheHits.increment();
+				return cached;
+			}
+			verified.invalidate(key);
+			throw new ExpiredJwtException(null, cached.getClaims(), "JWT expired at " + cached.getExpiration());
+		}
+
+		cacheMisses.increment();
+		// Also rejects expired tokens
+		VerifiedToken verifiedToken = new VerifiedToken(parser.parseClaimsJws(token).getBody());
+		verified.put(key, verifiedToken);
+		return verifiedToken;
+	}
+
 	public String extractUsername(String token) {
-		return extractClaim(token, Claims::getSubject);
+		return verify(token).getSubject();
 	}
 
 	public Date extractExpiration(String token) {
-		return extractClaim(token, Claims::getExpiration);
+		return verify(token).getExpiration();
 	}
 
 	public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-		final Claims claims = extractAllClaims(token);
-		return claimsResolver.apply(claims);
+		return claimsResolver.apply(verify(token).getClaims());
 	}
 
-	private Claims extractAllClaims(String token) {
-		return Jwts.parserBuilder()
-			.setSigningKey(signingKey())
-			.build()
-			.parseClaimsJws(token)
-			.getBody();
-	}
-
-	private Boolean isTokenExpired(String token) {
-		return extractExpiration(token).before(new Date());
+	public Boolean validateToken(String token, String username) {
+		// verify() already rejects expired tokens
+		return verify(token).getSubject().equals(username);
 	}
 
-	public Boolean validateToken(String token, String username) {
-		final String extractedUsername = extractUsername(token);
-		return (extractedUsername.equals(username) && !isTokenExpired(token));
+	// Cache key that does not keep usable tokens in memory
+	private static String digest(String token) {
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+			return Base64.getEncoder().encodeToString(hash);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
 	}
 }
-
-
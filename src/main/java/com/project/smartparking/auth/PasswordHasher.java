@@ -0,0 +1,111 @@
+package com.project.smartparking.auth;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs password hashing and verification on a small dedicated pool with a bounded queue.
+ * A burst of logins can then use at most the pool's threads' worth of CPU, instead of every request
+ * thread spending a core on BCrypt while booking traffic waits. When the queue is full, or a job waits
+ * longer than the timeout, callers get a PasswordHashingRejectedException right away and answer 503.
+ */
+@Component
+public class PasswordHasher {
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	// 0 means half of the available cores
+	@Value("${app.auth.hashing.threads:0}")
+	private int threads;
+
+	@Value("${app.auth.hashing.queue-capacity:64}")
+	private int queueCapacity;
+
+	@Value("${app.auth.hashing.timeout:PT5S}")
+	private Duration timeout;
+
+	private ThreadPoolExecutor executor;
+
+	private Counter rejected;
+
+	@PostConstruct
+	void init() {
+		int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+		AtomicInteger threadNumber = new AtomicInteger();
+		executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+			new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+				Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		rejected = Counter.builder("auth.hashing.rejected")
+			.description("Password hashing jobs rejected because the queue was full or the wait timed out")
+			.register(meterRegistry);
+		Gauge.builder("auth.hashing.queued", executor, pool -> pool.getQueue().size())
+			.description("Password hashing jobs waiting for a thread")
+			.register(meterRegistry);
+	}
+
+	@PreDestroy
+	void stop() {
+		executor.shutdownNow();
+	}
+
+	public String encode(String rawPassword) {
+		return run(() -> passwordEncoder.encode(rawPassword));
+	}
+
+	public boolean matches(String rawPassword, String encodedPassword) {
+		return run(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+	}
+
+	private <T> T run(Callable<T> job) {
+		Future<T> future;
+		try {
+			future = executor.submit(job);
+		} catch (RejectedExecutionException e) {
+			rejected.increment();
+			throw new PasswordHashingRejectedException();
+		}
+
+		try {
+			return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			// Frees the queue slot if the job has not started yet
+			future.cancel(false);
+			rejected.increment();
+			throw new PasswordHashingRejectedException();
+		} catch (InterruptedException e) {
+			future.cancel(false);
+			Thread.currentThread().interrupt();
+			throw new PasswordHashingRejectedException();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw new IllegalStateException("Password hashing failed", e.getCause());
+		}
+	}
+}
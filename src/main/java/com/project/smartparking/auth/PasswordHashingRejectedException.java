@@ -0,0 +1,11 @@
+package com.project.smartparking.auth;
+
+/**
+ * Thrown when PasswordHasher is saturated; answered with 503 and Retry-After
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+	public PasswordHashingRejectedException() {
+		super("Too many sign-in requests in progress, please retry later");
+	}
+}
@@ -0,0 +1,61 @@
+package com.project.smartparking.auth;
+
+import com.project.smartparking.repository.User;
+import com.project.smartparking.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Current token version of every user whose tokens have been revoked, so a token's version claim
+ * can be checked without a query. Users not in the map are still on version 0.
+ * Bumps made on this instance apply at once; bumps made elsewhere are picked up by the periodic reload.
+ */
+@Component
+public class TokenVersions {
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private final Map<Long, Integer> versions = new ConcurrentHashMap<>();
+
+	// Loaded before the first request is served, so revoked tokens are never accepted on startup
+	@PostConstruct
+	@Scheduled(fixedDelayString = "${app.jwt.token-version.refresh-ms:30000}")
+	public void reload() {
+		List<Object[]> rows = userRepository.findBumpedTokenVersions();
+		for (Object[] row : rows) {
+			// Versions only grow, so a reload racing a local bump must not lower it
+			versions.merge((Long) row[0], (Integer) row[1], Math::max);
+		}
+	}
+
+	/**
+	 * Version to put into a new token for the user. The user record may come from UserCache, so its
+	 * version can predate a revocation; the newer of the two wins.
+	 */
+	public int current(User user) {
+		int recorded = user.getTokenVersion() == null ? 0 : user.getTokenVersion();
+		return Math.max(recorded, versions.getOrDefault(user.getId(), 0));
+	}
+
+	public boolean isCurrent(Long userId, int version) {
+		return version >= versions.getOrDefault(userId, 0);
+	}
+
+	/**
+	 * Invalidate every token issued to the user so far
+	 * @return the user's new token version
+	 */
+	public int revoke(Long userId) {
+		userRepository.incrementTokenVersion(userId);
+		Integer version = userRepository.findTokenVersion(userId);
+		versions.merge(userId, version, Math::max);
+		return version;
+	}
+}
@@ -0,0 +1,113 @@
+package com.project.smartparking.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.project.smartparking.repository.User;
+import com.project.smartparking.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Bounded, time-expiring cache of user records by email in front of UserRepository.findByEmail.
+ * Entries are dropped when the user registers, changes role or changes password on this instance;
+ * changes made on other instances are seen once the entry expires.
+ * Cached users are shared between callers and must not be modified; load a user by id to update it.
+ * Their token version is not authoritative: JwtService takes it from TokenVersions when issuing tokens.
+ */
+@Component
+public class UserCache {
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${app.users.cache.ttl:PT5M}")
+	private Duration ttl;
+
+	@Value("${app.users.cache.max-entries:10000}")
+	private int maxEntries;
+
+	private Cache<String, User> users;
+
+	// Guarded by this; a lookup that started before the last invalidation may have read stale data
+	private long lastInvalidation = System.nanoTime();
+
+	private Counter hits;
+
+	private Counter misses;
+
+	@PostConstruct
+	void init() {
+		users = Caffeine.newBuilder()
+			.maximumSize(maxEntries)
+			.expireAfterWrite(ttl)
+			.build();
+		hits = Counter.builder("users.cache")
+			.tag("result", "hit")
+			.description("User lookups by email answered from the cache")
+			.register(meterRegistry);
+		misses = Counter.builder("users.cache")
+			.tag("result", "miss")
+			.description("User lookups by email that queried the database")
+			.register(meterRegistry);
+		Gauge.builder("users.cache.hit.ratio", this, UserCache::hitRatio)
+			.description("Share of user lookups by email answered from the cache since startup")
+			.register(meterRegistry);
+		Gauge.builder("users.cache.size", this, UserCache::size)
+			.description("Users held in the cache")
+			.register(meterRegistry);
+	}
+
+	/**
+	 * The user with this email, or null if there is none; unknown emails are not cached
+	 */
+	public User findByEmail(String email) {
+		String key = key(email);
+		long now = System.nanoTime();
+		User cached = users.getIfPresent(key);
+		if (cached != null) {
+			hits.increment();
+			return cached;
+		}
+
+		misses.increment();
+		User user = userRepository.findByEmail(email);
+		if (user != null) {
+			synchronized (this) {
+				if (now - lastInvalidation > 0) {
+					users.put(key, user);
+				}
+			}
+		}
+		return user;
+	}
+
+	public synchronized void invalidate(String email) {
+		users.invalidate(key(email));
+		lastInvalidation = System.nanoTime();
+	}
+
+	private double hitRatio() {
+		double total = hits.count() + misses.count();
+		return total == 0 ? 0 : hits.count() / total;
+	}
+
+	private double size() {
+		return users.estimatedSize();
+	}
+
+	// MySQL compares emails case-insensitively
+	private static String key(String email) {
+		return email.toLowerCase(Locale.ROOT);
+	}
+}
@@ -0,0 +1,50 @@
+package com.project.smartparking.auth;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Date;
+
+/**
+ * Claims of a JWT whose signature has been checked.
+ * Produced once by JwtService.verify and shared from its cache, so it must not be modified.
+ */
+public class VerifiedToken {
+
+	static final String USER_ID_CLAIM = "uid";
+	static final String ROLE_CLAIM = "role";
+	static final String TOKEN_VERSION_CLAIM = "ver";
+
+	private final Claims claims;
+
+	VerifiedToken(Claims claims) {
+		this.claims = claims;
+	}
+
+	public String getSubject() { return claims.getSubject(); }
+
+	public Date getIssuedAt() { return claims.getIssuedAt(); }
+
+	public Date getExpiration() { return claims.getExpiration(); }
+
+	public Long getUserId() { return claims.get(USER_ID_CLAIM, Long.class); }
+
+	public String getRole() { return claims.get(ROLE_CLAIM, String.class); }
+
+	public Integer getTokenVersion() { return claims.get(TOKEN_VERSION_CLAIM, Integer.class); }
+
+	public Claims getClaims() { return claims; }
+
+	/**
+	 * The caller named by the token's claims, or null for a token issued without them
+	 */
+	public AuthenticatedUser toAuthenticatedUser() {
+		if (getUserId() == null || getRole() == null || getTokenVersion() == null) {
+			return null;
+		}
+		return new AuthenticatedUser(getUserId(), getSubject(), getRole());
+	}
+
+	public boolean isExpired() {
+		return getExpiration() != null && getExpiration().before(new Date());
+	}
+}
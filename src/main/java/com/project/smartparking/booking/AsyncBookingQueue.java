@@ -0,0 +1,158 @@
+package com.project.smartparking.booking;
+
+import com.project.smartparking.auth.AuthenticatedUser;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded in-process queue behind POST /api/bookings/async.
+ * Accepting a request is just an offer to the queue, so its latency does not depend on the database;
+ * a few worker threads drain the queue and create the bookings in micro-batches, one transaction each.
+ * Results are kept by ticket id for a while so clients can poll for them.
+ */
+@Component
+public class AsyncBookingQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncBookingQueue.class);
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Value("${app.booking.async.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${app.booking.async.workers:2}")
+    private int workers;
+
+    @Value("${app.booking.async.batch-size:20}")
+    private int batchSize;
+
+    @Value("${app.booking.async.ticket-ttl:PT10M}")
+    private Duration ticketTtl;
+
+    private BlockingQueue<QueuedBooking> queue;
+
+    private final ConcurrentHashMap<String, QueuedBooking> tickets = new ConcurrentHashMap<>();
+
+    private ExecutorService workerPool;
+
+    private volatile boolean running = true;
+
+    @PostConstruct
+    void init() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        workerPool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "booking-async-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workers; i++) {
+            workerPool.execute(this::work);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (workerPool != null) {
+            workerPool.shutdownNow();
+        }
+    }
+
+    /**
+     * Queue a booking request; returns null when the queue is full
+     */
+    public QueuedBooking submit(BookingDto.CreateBookingRequest request, AuthenticatedUser user) {
+        QueuedBooking queued = new QueuedBooking(UUID.randomUUID().toString(), request, user);
+        tickets.put(queued.getTicketId(), queued);
+        if (!queue.offer(queued)) {
+            tickets.remove(queued.getTicketId());
+            return null;
+        }
+        return queued;
+    }
+
+    public QueuedBooking find(String ticketId) {
+        return tickets.get(ticketId);
+    }
+
+    /**
+     * Forget tickets whose result has been available for longer than the ticket TTL
+     */
+    @Scheduled(fixedDelay = 60, timeUnit = TimeUnit.SECONDS)
+    public void purgeCompleted() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(ticketTtl);
+        tickets.values().removeIf(ticket -> ticket.getCompletedAt() != null && ticket.getCompletedAt().isBefore(cutoff));
+    }
+
+    private void work() {
+        List<QueuedBooking> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                QueuedBooking first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Async booking worker failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void process(List<QueuedBooking> batch) {
+        try {
+            bookingService.createQueuedBookings(batch);
+        } catch (RuntimeException e) {
+            // The shared transaction rolled back; retry each booking in its own transaction
+            log.warn("Booking micro-batch of {} failed, retrying one by one: {}", batch.size(), e.getMessage());
+            for (QueuedBooking queued : batch) {
+                if (queued.isRejected()) {
+                    continue;
+                }
+                try {
+                    queued.created(bookingService.createBooking(queued.getRequest(), queued.getUser()));
+                } catch (IllegalArgumentException rejection) {
+                    queued.rejected(rejection.getMessage());
+                } catch (RuntimeException failure) {
+                    log.error("Async booking {} failed", queued.getTicketId(), failure);
+                    queued.discardOutcome();
+                }
+            }
+        }
+        batch.forEach(QueuedBooking::complete);
+    }
+}
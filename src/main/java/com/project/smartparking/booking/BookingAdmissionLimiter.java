@@ -0,0 +1,203 @@
+package com.project.smartparking.booking;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-lot token buckets in front of booking creation.
+ * A burst of requests for one lot is shed with 429 before it reaches the database, so a busy lot
+ * cannot take every pooled connection away from the others. Buckets live in a map split into
+ * lock stripes, so requests for different lots rarely contend.
+ */
+@Component
+public class BookingAdmissionLimiter {
+
+    private static final int STRIPES = 64;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.booking.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    // Burst size: bookings a lot accepts at once before requests are throttled
+    @Value("${app.booking.rate-limit.capacity:20}")
+    private int defaultCapacity;
+
+    @Value("${app.booking.rate-limit.refill-per-second:10}")
+    private double defaultRefillPerSecond;
+
+    // Per-lot limits as "lotId:capacity:refillPerSecond", comma separated
+    @Value("${app.booking.rate-limit.overrides:}")
+    private String overrides;
+
+    private final Map<Long, Limit> limits = new HashMap<>();
+
+    private Limit defaultLimit;
+
+    private final Object[] locks = new Object[STRIPES];
+
+    @SuppressWarnings("unchecked")
+    private final Map<Long, Bucket>[] buckets = new Map[STRIPES];
+
+    private Counter rejections;
+
+    public BookingAdmissionLimiter() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+            buckets[i] = new HashMap<>();
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        defaultLimit = new Limit(defaultCapacity, defaultRefillPerSecond);
+        for (String override : overrides.split(",")) {
+            if (override.isBlank()) {
+                continue;
+            }
+            String[] parts = override.trim().split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid rate limit override '" + override
+                        + "', expected lotId:capacity:refillPerSecond");
+            }
+            limits.put(Long.valueOf(parts[0]), new Limit(Integer.parseInt(parts[1]), Double.parseDouble(parts[2])));
+        }
+
+        rejections = Counter.builder("booking.admission.rejected")
+                .description("Booking requests shed by the per-lot token buckets")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Most permits one request can take for a lot; a larger request would never be admitted
+     */
+    public int capacity(Long parkingLotId) {
+        if (!enabled || parkingLotId == null) {
+            return Integer.MAX_VALUE;
+        }
+        return limitFor(parkingLotId).capacity;
+    }
+
+    /**
+     * Take permits from a lot's bucket.
+     * Returns 0 when admitted, otherwise the number of seconds after which a retry can succeed.
+     * @throws IllegalArgumentException if more permits are asked for than the bucket can ever hold
+     */
+    public long tryAcquire(Long parkingLotId, int permits) {
+        if (!enabled || parkingLotId == null) {
+            return 0;
+        }
+
+        Limit limit = limitFor(parkingLotId);
+        if (permits > limit.capacity) {
+            // Retrying would never help, so this is not a 429
+            throw new IllegalArgumentException(tooLargeMessage(parkingLotId, limit.capacity));
+        }
+
+        int stripe = stripeOf(parkingLotId);
+        long now = System.nanoTime();
+        double missing;
+        synchronized (locks[stripe]) {
+            Bucket bucket = buckets[stripe].computeIfAbsent(parkingLotId, id -> new Bucket(limit.capacity, now));
+            bucket.refill(limit, now);
+            if (bucket.tokens >= permits) {
+                bucket.tokens -= permits;
+                return 0;
+            }
+            missing = permits - bucket.tokens;
+        }
+
+        rejections.increment();
+        return Math.max(1, (long) Math.ceil(missing / limit.refillPerSecond));
+    }
+
+    /**
+     * Give back permits taken for a request that was not carried out
+     */
+    public void release(Long parkingLotId, int permits) {
+        if (!enabled || parkingLotId == null) {
+            return;
+        }
+        Limit limit = limitFor(parkingLotId);
+        int stripe = stripeOf(parkingLotId);
+        synchronized (locks[stripe]) {
+            Bucket bucket = buckets[stripe].get(parkingLotId);
+            if (bucket != null) {
+                bucket.tokens = Math.min(limit.capacity, bucket.tokens + permits);
+            }
+        }
+    }
+
+    /**
+     * Forget buckets that have refilled completely; a new bucket starts full anyway
+     */
+    @Scheduled(fixedDelay = 60, timeUnit = TimeUnit.SECONDS)
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            synchronized (locks[stripe]) {
+                Iterator<Map.Entry<Long, Bucket>> iterator = buckets[stripe].entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<Long, Bucket> entry = iterator.next();
+                    Limit limit = limitFor(entry.getKey());
+                    entry.getValue().refill(limit, now);
+                    if (entry.getValue().tokens >= limit.capacity) {
+                        iterator.remove();
+                    }
+                }
+            }
+        }
+    }
+
+    static String tooLargeMessage(Long parkingLotId, int capacity) {
+        return "At most " + capacity + " bookings for parking lot " + parkingLotId
+                + " can be created in one request; split the batch";
+    }
+
+    private Limit limitFor(Long parkingLotId) {
+        return limits.getOrDefault(parkingLotId, defaultLimit);
+    }
+
+    private int stripeOf(Long parkingLotId) {
+        return (Long.hashCode(parkingLotId) & 0x7fffffff) % STRIPES;
+    }
+
+    private static final class Limit {
+        private final int capacity;
+        private final double refillPerSecond;
+
+        private Limit(int capacity, double refillPerSecond) {
+            this.capacity = capacity;
+            this.refillPerSecond = refillPerSecond;
+        }
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long lastRefillNanos;
+
+        private Bucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.lastRefillNanos = now;
+        }
+
+        private void refill(Limit limit, long now) {
+            double elapsedSeconds = (now - lastRefillNanos) / 1_000_000_000.0;
+            if (elapsedSeconds > 0) {
+                tokens = Math.min(limit.capacity, tokens + elapsedSeconds * limit.refillPerSecond);
+                lastRefillNanos = now;
+            }
+        }
+    }
+}
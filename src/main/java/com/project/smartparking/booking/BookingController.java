@@ -1,13 +1,19 @@
 package com.project.smartparking.booking;
 
-import com.project.smartparking.auth.JwtService;
+import com.project.smartparking.auth.AuthenticatedUser;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/bookings")
@@ -18,89 +24,263 @@ public class BookingController {
     private BookingService bookingService;
 
     @Autowired
-    private JwtService jwtService;
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private BookingAdmissionLimiter admissionLimiter;
+
+    @Autowired
+    private AsyncBookingQueue asyncBookingQueue;
+
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 128;
 
     @GetMapping
-    public ResponseEntity<?> getUserBookings(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getUserBookings(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         try {
-            // Verify token and extract email
-            String email = extractEmailFromToken(authHeader);
-            if (email == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body("Invalid or expired token");
-            }
-
-            List<BookingDto.BookingResponse> bookings = bookingService.getUserBookings(email);
+            BookingDto.BookingPage bookings = bookingService.getUserBookings(user, status, cursor, limit);
             return ResponseEntity.ok(bookings);
 
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body("Invalid or expired token");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Request failed: " + e.getMessage());
         }
     }
 
     @PostMapping
     public ResponseEntity<?> createBooking(
-            @RequestHeader("Authorization") String authHeader,
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @Valid @RequestBody BookingDto.CreateBookingRequest request) {
         try {
-            // Verify token and extract email
-            String email = extractEmailFromToken(authHeader);
-            if (email == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body("Invalid or expired token");
+            if (idempotencyKey != null) {
+                if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+                    return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                            .body("Idempotency-Key must be 1 to " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+                }
+
+                // A retry of a request that already succeeded gets the original response back, without a permit
+                Optional<BookingDto.BookingResponse> replay = idempotencyStore.find(user.getEmail(), idempotencyKey, request);
+                if (replay.isPresent()) {
+                    return replayed(replay.get());
+                }
+            }
+
+            // Shed bursts for one lot before any database work
+            long retryAfter = admissionLimiter.tryAcquire(request.getParkingLotId(), 1);
+            if (retryAfter > 0) {
+                return tooManyRequests(retryAfter);
             }
 
-            BookingDto.BookingResponse response = bookingService.createBooking(request, email);
+            if (idempotencyKey == null) {
+                BookingDto.BookingResponse response = bookingService.createBooking(request, user);
+                return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            }
+
+            if (!idempotencyStore.begin(user.getEmail(), idempotencyKey)) {
+                admissionLimiter.release(request.getParkingLotId(), 1);
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body("A request with this Idempotency-Key is already being processed");
+            }
+            try {
+                // The first request may have finished between the lookup above and begin()
+                Optional<BookingDto.BookingResponse> finished = idempotencyStore.find(user.getEmail(), idempotencyKey, request);
+                if (finished.isPresent()) {
+                    admissionLimiter.release(request.getParkingLotId(), 1);
+                    return replayed(finished.get());
+                }
+                BookingDto.BookingResponse response = bookingService.createBooking(request, user, idempotencyKey);
+                return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            } catch (DataIntegrityViolationException e) {
+                // Another instance stored the same key first; its booking is the one the client gets
+                Optional<BookingDto.BookingResponse> stored = idempotencyStore.find(user.getEmail(), idempotencyKey, request);
+                if (stored.isPresent()) {
+                    return replayed(stored.get());
+                }
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body("A request with this Idempotency-Key is already being processed");
+            } finally {
+                idempotencyStore.end(user.getEmail(), idempotencyKey);
+            }
+
+        } catch (IdempotencyKeyReusedException e) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Request failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Queue a booking and return 202 with a ticket right away
+     * The booking is created by a background worker; poll GET /api/bookings/tickets/{ticketId} for the result
+     */
+    @PostMapping("/async")
+    public ResponseEntity<?> submitBooking(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @Valid @RequestBody BookingDto.CreateBookingRequest request) {
+        try {
+            long retryAfter = admissionLimiter.tryAcquire(request.getParkingLotId(), 1);
+            if (retryAfter > 0) {
+                return tooManyRequests(retryAfter);
+            }
+
+            QueuedBooking queued = asyncBookingQueue.submit(request, user);
+            if (queued == null) {
+                admissionLimiter.release(request.getParkingLotId(), 1);
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .body("Booking queue is full, please retry later");
+            }
+
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .header(HttpHeaders.LOCATION, "/api/bookings/tickets/" + queued.getTicketId())
+                    .body(BookingDto.BookingTicketResponse.of(queued));
+
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Request failed: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/tickets/{ticketId}")
+    public ResponseEntity<?> getBookingTicket(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @PathVariable String ticketId) {
+        try {
+            // Tickets of other users are reported as unknown
+            QueuedBooking queued = asyncBookingQueue.find(ticketId);
+            if (queued == null || !queued.getUser().getId().equals(user.getId())) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Ticket not found");
+            }
+            return ResponseEntity.ok(BookingDto.BookingTicketResponse.of(queued));
+
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Request failed: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<?> createBookings(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @Valid @RequestBody BookingDto.BatchCreateBookingRequest request) {
+        try {
+            // Every lot in the batch must admit its share, otherwise the permits already taken are returned
+            Map<Long, Integer> permitsByLot = new LinkedHashMap<>();
+            request.getBookings().forEach(booking -> permitsByLot.merge(booking.getParkingLotId(), 1, Integer::sum));
+            for (Map.Entry<Long, Integer> entry : permitsByLot.entrySet()) {
+                // More bookings for one lot than its bucket holds can never be admitted, so retrying is pointless
+                int capacity = admissionLimiter.capacity(entry.getKey());
+                if (entry.getValue() > capacity) {
+                    return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                            .body(BookingAdmissionLimiter.tooLargeMessage(entry.getKey(), capacity));
+                }
+            }
+            Map<Long, Integer> acquired = new LinkedHashMap<>();
+            for (Map.Entry<Long, Integer> entry : permitsByLot.entrySet()) {
+                long retryAfter = admissionLimiter.tryAcquire(entry.getKey(), entry.getValue());
+                if (retryAfter > 0) {
+                    acquired.forEach(admissionLimiter::release);
+                    return tooManyRequests(retryAfter);
+                }
+                acquired.put(entry.getKey(), entry.getValue());
+            }
+
+            List<BookingDto.BookingResponse> response = bookingService.createBookings(request.getBookings(), user);
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
 
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body("Invalid or expired token");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Request failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Join the waitlist of a full parking lot
+     * The entry is turned into a PENDING booking when a space for its window is freed
+     */
+    @PostMapping("/waitlist")
+    public ResponseEntity<?> joinWaitlist(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @Valid @RequestBody BookingDto.CreateBookingRequest request) {
+        try {
+            BookingDto.WaitlistResponse response = bookingService.joinWaitlist(request, user);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Request failed: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/waitlist")
+    public ResponseEntity<?> getUserWaitlist(@AuthenticationPrincipal AuthenticatedUser user) {
+        try {
+            return ResponseEntity.ok(bookingService.getUserWaitlist(user));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Request failed: " + e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/waitlist/{id}")
+    public ResponseEntity<?> leaveWaitlist(
+            @PathVariable Long id,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        try {
+            bookingService.leaveWaitlist(id, user);
+            return ResponseEntity.ok("Left the waitlist");
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Request failed: " + e.getMessage());
         }
     }
 
     @PutMapping("/{id}/status")
     public ResponseEntity<?> updateBookingStatus(
             @PathVariable Long id,
-            @RequestHeader("Authorization") String authHeader,
+            @AuthenticationPrincipal AuthenticatedUser user,
             @Valid @RequestBody BookingDto.UpdateBookingStatusRequest request) {
         try {
-            // Verify token and extract email
-            String email = extractEmailFromToken(authHeader);
-            if (email == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body("Invalid or expired token");
-            }
-
-            BookingDto.BookingResponse response = bookingService.updateBookingStatus(id, request, email);
+            BookingDto.BookingResponse response = bookingService.updateBookingStatus(id, request, user);
             return ResponseEntity.ok(response);
 
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body("Invalid or expired token");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Request failed: " + e.getMessage());
         }
     }
 
-    private String extractEmailFromToken(String authHeader) {
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            return null;
-        }
-
-        String token = authHeader.substring(7);
-        String email = jwtService.extractUsername(token);
-        
-        // Validate token
-        if (!jwtService.validateToken(token, email)) {
-            return null;
-        }
+    private ResponseEntity<?> replayed(BookingDto.BookingResponse response) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header("Idempotent-Replayed", "true")
+                .body(response);
+    }
 
-        return email;
+    private ResponseEntity<?> tooManyRequests(long retryAfterSeconds) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body("Too many booking requests for this parking lot, please retry later");
     }
+
 }
@@ -0,0 +1,30 @@
+package com.project.smartparking.booking;
+
+import java.time.LocalDateTime;
+
+/**
+ * Opaque keyset cursor for booking listings.
+ * Points at the last (createdAt, id) pair of a page; the next page starts strictly after it.
+ */
+public class BookingCursor {
+
+    private final LocalDateTime createdAt;
+    private final Long id;
+
+    public BookingCursor(LocalDateTime createdAt, Long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    public Long getId() { return id; }
+
+    public String encode() {
+        return CursorCodec.encode(createdAt, id);
+    }
+
+    public static BookingCursor decode(String cursor) {
+        return CursorCodec.decode(cursor, (key, id) -> new BookingCursor(LocalDateTime.parse(key), id));
+    }
+}
@@ -1,8 +1,12 @@
 package com.project.smartparking.booking;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import java.time.LocalDateTime;
+import java.util.List;
 
 public class BookingDto {
 
@@ -25,6 +29,10 @@ public class BookingDto {
         @NotBlank(message = "Timing slot is required")
         private String timingSlot;
 
+        // Optional exact window; when absent the window is derived from timingSlot
+        private LocalDateTime startTime;
+        private LocalDateTime endTime;
+
         public Long getParkingLotId() { return parkingLotId; }
         public void setParkingLotId(Long parkingLotId) { this.parkingLotId = parkingLotId; }
 
@@ -42,6 +50,22 @@ public class BookingDto {
 
         public String getTimingSlot() { return timingSlot; }
         public void setTimingSlot(String timingSlot) { this.timingSlot = timingSlot; }
+
+        public LocalDateTime getStartTime() { return startTime; }
+        public void setStartTime(LocalDateTime startTime) { this.startTime = startTime; }
+
+        public LocalDateTime getEndTime() { return endTime; }
+        public void setEndTime(LocalDateTime endTime) { this.endTime = endTime; }
+    }
+
+    public static class BatchCreateBookingRequest {
+        @NotEmpty(message = "Bookings list cannot be empty")
+        @Size(max = 100, message = "At most 100 bookings can be created at once")
+        @Valid
+        private List<CreateBookingRequest> bookings;
+
+        public List<CreateBookingRequest> getBookings() { return bookings; }
+        public void setBookings(List<CreateBookingRequest> bookings) { this.bookings = bookings; }
     }
 
     public static class UpdateBookingStatusRequest {
@@ -63,6 +87,8 @@ public class BookingDto {
         private String vehicalNo;
         private String vehicalType;
         private String timingSlot;
+        private LocalDateTime startTime;
+        private LocalDateTime endTime;
         private LocalDateTime createdAt;
         private String status;
 
@@ -71,6 +97,7 @@ public class BookingDto {
         public BookingResponse(Long id, Long userId, Long parkingLotId, String parkingLotName, 
                              String parkingLotAddress, String ownerName, String mobileNo, 
                              String vehicalNo, String vehicalType, String timingSlot, 
+                             LocalDateTime startTime, LocalDateTime endTime,
                              LocalDateTime createdAt, String status) {
             this.id = id;
             this.userId = userId;
@@ -82,6 +109,8 @@ public class BookingDto {
             this.vehicalNo = vehicalNo;
             this.vehicalType = vehicalType;
             this.timingSlot = timingSlot;
+            this.startTime = startTime;
+            this.endTime = endTime;
             this.createdAt = createdAt;
             this.status = status;
         }
@@ -116,10 +145,156 @@ public class BookingDto {
         public String getTimingSlot() { return timingSlot; }
         public void setTimingSlot(String timingSlot) { this.timingSlot = timingSlot; }
 
+        public LocalDateTime getStartTime() { return startTime; }
+        public void setStartTime(LocalDateTime startTime) { this.startTime = startTime; }
+
+        public LocalDateTime getEndTime() { return endTime; }
+        public void setEndTime(LocalDateTime endTime) { this.endTime = endTime; }
+
+        public LocalDateTime getCreatedAt() { return createdAt; }
+        public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+    }
+
+    public static class BookingPage {
+        public static final int DEFAULT_LIMIT = 20;
+        public static final int MAX_LIMIT = 100;
+
+        private List<BookingResponse> items;
+        private String nextCursor;
+
+        public BookingPage(List<BookingResponse> items, String nextCursor) {
+            this.items = items;
+            this.nextCursor = nextCursor;
+        }
+
+        /**
+         * Build a page from rows fetched with limit + 1; the extra row only signals that more exist
+         */
+        public static BookingPage of(List<BookingResponse> rows, int limit) {
+            if (rows.size() <= limit) {
+                return new BookingPage(rows, null);
+            }
+            List<BookingResponse> items = rows.subList(0, limit);
+            BookingResponse last = items.get(limit - 1);
+            return new BookingPage(items, new BookingCursor(last.getCreatedAt(), last.getId()).encode());
+        }
+
+        public static int normalizeLimit(Integer limit) {
+            if (limit == null) {
+                return DEFAULT_LIMIT;
+            }
+            if (limit < 1 || limit > MAX_LIMIT) {
+                throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+            }
+            return limit;
+        }
+
+        public List<BookingResponse> getItems() { return items; }
+        public void setItems(List<BookingResponse> items) { this.items = items; }
+
+        public String getNextCursor() { return nextCursor; }
+        public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+    }
+
+    public static class WaitlistResponse {
+        private Long id;
+        private Long parkingLotId;
+        private String timingSlot;
+        private LocalDateTime startTime;
+        private LocalDateTime endTime;
+        private String status;
+        private Integer position;
+        private Long bookingId;
+        private LocalDateTime createdAt;
+
+        public WaitlistResponse(Long id, Long parkingLotId, String timingSlot, LocalDateTime startTime,
+                                LocalDateTime endTime, String status, Integer position, Long bookingId,
+                                LocalDateTime createdAt) {
+            this.id = id;
+            this.parkingLotId = parkingLotId;
+            this.timingSlot = timingSlot;
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.status = status;
+            this.position = position;
+            this.bookingId = bookingId;
+            this.createdAt = createdAt;
+        }
+
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+
+        public Long getParkingLotId() { return parkingLotId; }
+        public void setParkingLotId(Long parkingLotId) { this.parkingLotId = parkingLotId; }
+
+        public String getTimingSlot() { return timingSlot; }
+        public void setTimingSlot(String timingSlot) { this.timingSlot = timingSlot; }
+
+        public LocalDateTime getStartTime() { return startTime; }
+        public void setStartTime(LocalDateTime startTime) { this.startTime = startTime; }
+
+        public LocalDateTime getEndTime() { return endTime; }
+        public void setEndTime(LocalDateTime endTime) { this.endTime = endTime; }
+
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+
+        // Place in the queue while WAITING, otherwise null
+        public Integer getPosition() { return position; }
+        public void setPosition(Integer position) { this.position = position; }
+
+        public Long getBookingId() { return bookingId; }
+        public void setBookingId(Long bookingId) { this.bookingId = bookingId; }
+
         public LocalDateTime getCreatedAt() { return createdAt; }
         public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    }
 
+    public static class BookingTicketResponse {
+        private String ticketId;
+        private String status;
+        private BookingResponse booking;
+        private String error;
+        private LocalDateTime submittedAt;
+        private LocalDateTime completedAt;
+
+        public BookingTicketResponse(String ticketId, String status, BookingResponse booking, String error,
+                                     LocalDateTime submittedAt, LocalDateTime completedAt) {
+            this.ticketId = ticketId;
+            this.status = status;
+            this.booking = booking;
+            this.error = error;
+            this.submittedAt = submittedAt;
+            this.completedAt = completedAt;
+        }
+
+        public static BookingTicketResponse of(QueuedBooking queued) {
+            // Read status first; the outcome fields are written before it
+            String status = queued.getStatus();
+            return new BookingTicketResponse(queued.getTicketId(), status, queued.getResponse(), queued.getError(),
+                    queued.getSubmittedAt(), queued.getCompletedAt());
+        }
+
+        public String getTicketId() { return ticketId; }
+        public void setTicketId(String ticketId) { this.ticketId = ticketId; }
+
+        // QUEUED, SUCCEEDED or FAILED
         public String getStatus() { return status; }
         public void setStatus(String status) { this.status = status; }
+
+        public BookingResponse getBooking() { return booking; }
+        public void setBooking(BookingResponse booking) { this.booking = booking; }
+
+        public String getError() { return error; }
+        public void setError(String error) { this.error = error; }
+
+        public LocalDateTime getSubmittedAt() { return submittedAt; }
+        public void setSubmittedAt(LocalDateTime submittedAt) { this.submittedAt = submittedAt; }
+
+        public LocalDateTime getCompletedAt() { return completedAt; }
+        public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
     }
 }
@@ -1,20 +1,155 @@
 package com.project.smartparking.booking;
 
 import com.project.smartparking.repository.Booking;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
+
+    /**
+     * Builds BookingResponse rows directly, joining each booking to its parking lot
+     * so the lot name and address come back in the same round trip
+     */
+    String BOOKING_RESPONSE_SELECT =
+            "SELECT new com.project.smartparking.booking.BookingDto$BookingResponse(" +
+            "b.id, b.userId, b.parkingLotId, COALESCE(p.name, ''), COALESCE(p.address, ''), " +
+            "b.ownerName, b.mobileNo, b.vehicalNo, b.vehicalType, b.timingSlot, b.startTime, b.endTime, " +
+            "b.createdAt, b.status) " +
+            "FROM Booking b LEFT JOIN ParkingSlot p ON p.id = b.parkingLotId ";
     
     List<Booking> findByUserId(Long userId);
     
     List<Booking> findByParkingLotId(Long parkingLotId);
+
+    /**
+     * Stream every booking of a lot for export. Must be consumed inside a transaction;
+     * the fetch size lets the driver stream rows instead of buffering the whole result.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT b FROM Booking b WHERE b.parkingLotId = :parkingLotId ORDER BY b.id")
+    Stream<Booking> streamByParkingLotId(@Param("parkingLotId") Long parkingLotId);
     
-    @Query("SELECT COUNT(b) FROM Booking b WHERE b.parkingLotId = :parkingLotId")
-    Long countBookingsByParkingLotId(@Param("parkingLotId") Long parkingLotId);
+    // Keyset pages, newest first. A null status matches every status.
+
+    @Query(BOOKING_RESPONSE_SELECT +
+           "WHERE b.userId = :userId AND (:status IS NULL OR b.status = :status) " +
+           "ORDER BY b.createdAt DESC, b.id DESC")
+    List<BookingDto.BookingResponse> findUserBookingPage(@Param("userId") Long userId,
+                                                         @Param("status") String status,
+                                                         Limit limit);
+
+    @Query(BOOKING_RESPONSE_SELECT +
+           "WHERE b.userId = :userId AND (:status IS NULL OR b.status = :status) " +
+           "AND (b.createdAt < :createdAt OR (b.createdAt = :createdAt AND b.id < :id)) " +
+           "ORDER BY b.createdAt DESC, b.id DESC")
+    List<BookingDto.BookingResponse> findUserBookingPageAfter(@Param("userId") Long userId,
+                                                              @Param("status") String status,
+                                                              @Param("createdAt") LocalDateTime createdAt,
+                                                              @Param("id") Long id,
+                                                              Limit limit);
+
+    @Query(BOOKING_RESPONSE_SELECT +
+           "WHERE b.parkingLotId = :parkingLotId AND (:status IS NULL OR b.status = :status) " +
+           "ORDER BY b.createdAt DESC, b.id DESC")
+    List<BookingDto.BookingResponse> findParkingLotBookingPage(@Param("parkingLotId") Long parkingLotId,
+                                                               @Param("status") String status,
+                                                               Limit limit);
+
+    @Query(BOOKING_RESPONSE_SELECT +
+           "WHERE b.parkingLotId = :parkingLotId AND (:status IS NULL OR b.status = :status) " +
+           "AND (b.createdAt < :createdAt OR (b.createdAt = :createdAt AND b.id < :id)) " +
+           "ORDER BY b.createdAt DESC, b.id DESC")
+    List<BookingDto.BookingResponse> findParkingLotBookingPageAfter(@Param("parkingLotId") Long parkingLotId,
+                                                                    @Param("status") String status,
+                                                                    @Param("createdAt") LocalDateTime createdAt,
+                                                                    @Param("id") Long id,
+                                                                    Limit limit);
+
+    @Query(BOOKING_RESPONSE_SELECT + "WHERE b.id IN :ids ORDER BY b.id")
+    List<BookingDto.BookingResponse> findBookingResponsesByIds(@Param("ids") List<Long> ids);
+    
+    /**
+     * Active bookings of a lot whose window overlaps [from, to), read with row locks so the latest
+     * committed bookings are seen; taken after the lot row, as cancellations do
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Booking b WHERE b.parkingLotId = :parkingLotId AND b.status IN ('PENDING', 'CONFIRMED') " +
+           "AND b.startTime < :to AND b.endTime > :from")
+    List<Booking> findActiveOverlappingForUpdate(@Param("parkingLotId") Long parkingLotId,
+                                                 @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Give active bookings made before booking windows existed an explicit one, from their creation until the given end
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Booking b SET b.startTime = COALESCE(b.startTime, b.createdAt), b.endTime = COALESCE(b.endTime, :end) " +
+           "WHERE b.status IN ('PENDING', 'CONFIRMED') AND (b.startTime IS NULL OR b.endTime IS NULL)")
+    int backfillMissingWindows(@Param("end") LocalDateTime end);
+
+    /**
+     * Windows of active bookings that have not ended yet, used to rebuild the availability index
+     */
+    @Query("SELECT b.parkingLotId AS parkingLotId, b.startTime AS startTime, b.endTime AS endTime " +
+           "FROM Booking b WHERE b.status IN ('PENDING', 'CONFIRMED') AND b.endTime > :now")
+    List<ActiveWindow> findActiveWindowsEndingAfter(@Param("now") LocalDateTime now);
+
+    interface ActiveWindow {
+        Long getParkingLotId();
+        LocalDateTime getStartTime();
+        LocalDateTime getEndTime();
+    }
+
+    /**
+     * Id and creation time of every PENDING booking, used to rebuild the hold expiry wheel
+     */
+    @Query("SELECT b.id AS id, b.createdAt AS createdAt FROM Booking b WHERE b.status = 'PENDING'")
+    List<PendingHold> findPendingHolds();
+
+    interface PendingHold {
+        Long getId();
+        LocalDateTime getCreatedAt();
+    }
+
+    /**
+     * Lock a booking row so a status change cannot interleave with hold expiry
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Booking b WHERE b.id = :id")
+    Optional<Booking> findByIdForUpdate(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Booking b WHERE b.id IN :ids AND b.status = 'PENDING' ORDER BY b.id")
+    List<Booking> findPendingByIdsForUpdate(@Param("ids") List<Long> ids);
+
+    /**
+     * Booking counts per lot and status, used once to backfill lot_booking_stats
+     */
+    @Query("SELECT b.parkingLotId AS parkingLotId, b.status AS status, COUNT(b) AS count " +
+           "FROM Booking b GROUP BY b.parkingLotId, b.status")
+    List<StatusCount> countByLotAndStatus();
+
+    long countByParkingLotIdAndStatus(Long parkingLotId, String status);
+
+    interface StatusCount {
+        Long getParkingLotId();
+        String getStatus();
+        Long getCount();
+    }
 }
@@ -1,102 +1,227 @@
 package com.project.smartparking.booking;
 
+import com.project.smartparking.auth.AuthenticatedUser;
 import com.project.smartparking.repository.Booking;
 import com.project.smartparking.repository.ParkingSlot;
-import com.project.smartparking.repository.User;
-import com.project.smartparking.repository.UserRepository;
+import com.project.smartparking.repository.WaitlistEntry;
+import com.project.smartparking.parkinglot.ParkingLotChangedEvent;
 import com.project.smartparking.parkinglot.ParkingLotRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 @Service
 public class BookingService {
 
+    private static final String NO_AVAILABLE_SLOTS = "No available slots in this parking lot for the requested time";
+
     @Autowired
     private BookingRepository bookingRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private ParkingLotRepository parkingLotRepository;
 
     @Autowired
-    private ParkingLotRepository parkingLotRepository;
+    private SlotInventory slotInventory;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private HoldExpiryScheduler holdExpiryScheduler;
+
+    @Autowired
+    private BookingStats bookingStats;
+
+    @Autowired
+    private WaitlistEntryRepository waitlistEntryRepository;
+
+    @Autowired
+    private Waitlist waitlist;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
-    public List<BookingDto.BookingResponse> getUserBookings(String userEmail) {
-        User user = userRepository.findByEmail(userEmail);
-        if (user == null) {
-            throw new IllegalArgumentException("User not found");
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Counter capacityConflicts;
+
+    @PostConstruct
+    void initMetrics() {
+        capacityConflicts = Counter.builder("booking.capacity.conflicts")
+                .description("Bookings admitted in memory but rejected by the database (lot closed, removed or full)")
+                .register(meterRegistry);
+    }
+
+    public BookingDto.BookingPage getUserBookings(AuthenticatedUser user, String status, String cursor, Integer limit) {
+        int pageSize = BookingDto.BookingPage.normalizeLimit(limit);
+        String statusFilter = status == null ? null : status.toUpperCase();
+
+        // Fetch one extra row to find out whether there is a next page
+        List<BookingDto.BookingResponse> rows;
+        if (cursor == null) {
+            rows = bookingRepository.findUserBookingPage(user.getId(), statusFilter, Limit.of(pageSize + 1));
+        } else {
+            BookingCursor after = BookingCursor.decode(cursor);
+            rows = bookingRepository.findUserBookingPageAfter(
+                    user.getId(), statusFilter, after.getCreatedAt(), after.getId(), Limit.of(pageSize + 1));
         }
 
-        List<Booking> bookings = bookingRepository.findByUserId(user.getId());
-        
-        return bookings.stream()
-                .map(this::convertToBookingResponse)
-                .collect(Collectors.toList());
+        return BookingDto.BookingPage.of(rows, pageSize);
     }
 
     @Transactional
-    public BookingDto.BookingResponse createBooking(BookingDto.CreateBookingRequest request, String userEmail) {
-        // Get user
-        User user = userRepository.findByEmail(userEmail);
-        if (user == null) {
-            throw new IllegalArgumentException("User not found");
-        }
+    public BookingDto.BookingResponse createBooking(BookingDto.CreateBookingRequest request, AuthenticatedUser user) {
+        return createBooking(request, user, null);
+    }
 
-        // Get parking lot
-        Optional<ParkingSlot> optionalParkingLot = parkingLotRepository.findById(request.getParkingLotId());
-        if (optionalParkingLot.isEmpty()) {
-            throw new IllegalArgumentException("Parking lot not found");
+    /**
+     * Create a booking; when an idempotency key is given, its response is stored in the same transaction
+     */
+    @Transactional
+    public BookingDto.BookingResponse createBooking(BookingDto.CreateBookingRequest request, AuthenticatedUser user,
+                                                    String idempotencyKey) {
+        Booking savedBooking = createBookingEntities(List.of(request), user.getId()).get(0);
+        BookingDto.BookingResponse response = toBookingResponse(savedBooking);
+
+        if (idempotencyKey != null) {
+            idempotencyStore.record(user.getEmail(), idempotencyKey, request, response);
         }
+        return response;
+    }
 
-        ParkingSlot parkingLot = optionalParkingLot.get();
+    /**
+     * Create several bookings for the logged-in user at once.
+     * Capacity is checked for the whole set; either every booking is created or none is.
+     */
+    @Transactional
+    public List<BookingDto.BookingResponse> createBookings(List<BookingDto.CreateBookingRequest> requests, AuthenticatedUser user) {
+        List<Long> ids = createBookingEntities(requests, user.getId()).stream()
+                .map(Booking::getId)
+                .collect(Collectors.toList());
+        return bookingRepository.findBookingResponsesByIds(ids);
+    }
 
-        // Check if parking lot is open
-        if (!parkingLot.getIsOpen()) {
-            throw new IllegalArgumentException("Parking lot is currently closed");
+    private List<Booking> createBookingEntities(List<BookingDto.CreateBookingRequest> requests, Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        List<BookingWindow> windows = new ArrayList<>(requests.size());
+        Map<Long, List<BookingWindow>> windowsByLot = new LinkedHashMap<>();
+        for (BookingDto.CreateBookingRequest request : requests) {
+            BookingWindow window = BookingWindow.resolve(
+                    request.getStartTime(), request.getEndTime(), request.getTimingSlot(), now);
+            windows.add(window);
+            windowsByLot.computeIfAbsent(request.getParkingLotId(), id -> new ArrayList<>()).add(window);
         }
 
-        // Check if slots are available
-        Long currentBookings = bookingRepository.countBookingsByParkingLotId(request.getParkingLotId());
-        if (currentBookings >= parkingLot.getTotalSlots()) {
-            throw new IllegalArgumentException("No available slots in this parking lot");
+        // Reserve spaces in memory first so full or closed lots never reach the database
+        admitBookings(windowsByLot);
+        Runnable releaseReserved = releaseSlotsOnRollback(windowsByLot);
+
+        try {
+            return persistBookings(userId, requests, windows, windowsByLot, now);
+        } catch (IllegalArgumentException e) {
+            // Give the spaces back now; the surrounding transaction may still commit other bookings
+            releaseReserved.run();
+            throw e;
         }
+    }
 
-        // Create booking
-        Booking booking = new Booking();
-        booking.setUserId(user.getId());
-        booking.setParkingLotId(request.getParkingLotId());
-        booking.setOwnerName(request.getOwnerName());
-        booking.setMobileNo(request.getMobileNo());
-        booking.setVehicalNo(request.getVehicalNo());
-        booking.setVehicalType(request.getVehicalType());
-        booking.setTimingSlot(request.getTimingSlot());
-        booking.setStatus("PENDING"); // Default status
-        booking.setCreatedAt(LocalDateTime.now());
+    /**
+     * Write bookings whose spaces are already reserved in SlotInventory
+     */
+    private List<Booking> persistBookings(Long userId, List<BookingDto.CreateBookingRequest> requests,
+                                          List<BookingWindow> windows, Map<Long, List<BookingWindow>> windowsByLot,
+                                          LocalDateTime now) {
+        // Count the bookings on each lot; the guard re-checks the open state atomically
+        for (Map.Entry<Long, List<BookingWindow>> entry : windowsByLot.entrySet()) {
+            if (parkingLotRepository.incrementBookedSlots(entry.getKey(), entry.getValue().size()) == 0) {
+                capacityConflicts.increment();
+                throw rejectionFor(entry.getKey());
+            }
+            if (!fitsStoredBookings(entry.getKey(), entry.getValue())) {
+                capacityConflicts.increment();
+                throw new IllegalArgumentException(NO_AVAILABLE_SLOTS);
+            }
+            bookingStats.added(entry.getKey(), "PENDING", entry.getValue().size());
+            eventPublisher.publishEvent(new ParkingLotChangedEvent(entry.getKey()));
+        }
 
-        Booking savedBooking = bookingRepository.save(booking);
+        // Create bookings
+        List<Booking> bookings = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            BookingDto.CreateBookingRequest request = requests.get(i);
+            BookingWindow window = windows.get(i);
 
-        // Update booked slots count in parking lot
-        parkingLot.setBookedSlots(parkingLot.getBookedSlots() + 1);
-        parkingLotRepository.save(parkingLot);
+            Booking booking = new Booking();
+            booking.setUserId(userId);
+            booking.setParkingLotId(request.getParkingLotId());
+            booking.setOwnerName(request.getOwnerName());
+            booking.setMobileNo(request.getMobileNo());
+            booking.setVehicalNo(request.getVehicalNo());
+            booking.setVehicalType(request.getVehicalType());
+            booking.setTimingSlot(request.getTimingSlot());
+            booking.setStartTime(window.getStart());
+            booking.setEndTime(window.getEnd());
+            booking.setStatus("PENDING"); // Default status
+            booking.setCreatedAt(now);
+            bookings.add(booking);
+        }
 
-        return convertToBookingResponse(savedBooking);
+        // Pooled sequence ids let Hibernate send these as JDBC batch inserts
+        List<Booking> savedBookings = bookingRepository.saveAll(bookings);
+        scheduleHoldsAfterCommit(savedBookings);
+        return savedBookings;
     }
 
+    /**
+     * Create queued single bookings, possibly of different users, in one transaction.
+     * A rejected booking (full or closed lot, invalid window, ...) is recorded on its ticket and does not affect the others;
+     * any other failure rolls back the whole micro-batch.
+     */
     @Transactional
-    public BookingDto.BookingResponse updateBookingStatus(Long bookingId, BookingDto.UpdateBookingStatusRequest request, String userEmail) {
-        // Get user
-        User user = userRepository.findByEmail(userEmail);
-        if (user == null) {
-            throw new IllegalArgumentException("User not found");
+    public void createQueuedBookings(List<QueuedBooking> batch) {
+        Map<Long, QueuedBooking> queuedByBookingId = new LinkedHashMap<>();
+        for (QueuedBooking queued : batch) {
+            try {
+                Booking booking = createBookingEntities(List.of(queued.getRequest()), queued.getUser().getId()).get(0);
+                queuedByBookingId.put(booking.getId(), queued);
+            } catch (IllegalArgumentException e) {
+                queued.rejected(e.getMessage());
+            }
         }
 
-        // Get booking
-        Optional<Booking> optionalBooking = bookingRepository.findById(bookingId);
+        if (!queuedByBookingId.isEmpty()) {
+            for (BookingDto.BookingResponse response :
+                    bookingRepository.findBookingResponsesByIds(new ArrayList<>(queuedByBookingId.keySet()))) {
+                queuedByBookingId.get(response.getId()).created(response);
+            }
+        }
+    }
+
+    @Transactional
+    public BookingDto.BookingResponse updateBookingStatus(Long bookingId, BookingDto.UpdateBookingStatusRequest request, AuthenticatedUser user) {
+        // Get booking, locked so hold expiry cannot change it underneath us
+        Optional<Booking> optionalBooking = bookingRepository.findByIdForUpdate(bookingId);
         if (optionalBooking.isEmpty()) {
             throw new IllegalArgumentException("Booking not found");
         }
@@ -114,21 +239,283 @@ public class BookingService {
             throw new IllegalArgumentException("Invalid status transition from " + booking.getStatus() + " to " + newStatus);
         }
 
+        // The hold timer is no longer needed once the booking leaves PENDING
+        if ("PENDING".equals(booking.getStatus())) {
+            cancelHoldAfterCommit(booking.getId());
+        }
+
         // Update booked slots count if status changes to CANCELLED
         if ("CANCELLED".equals(newStatus) && !"CANCELLED".equals(booking.getStatus())) {
-            Optional<ParkingSlot> optionalParkingLot = parkingLotRepository.findById(booking.getParkingLotId());
-            if (optionalParkingLot.isPresent()) {
-                ParkingSlot parkingLot = optionalParkingLot.get();
-                parkingLot.setBookedSlots(Math.max(0, parkingLot.getBookedSlots() - 1));
-                parkingLotRepository.save(parkingLot);
-            }
+            releaseSlots(List.of(booking));
         }
 
         // Update booking status
+        bookingStats.moved(booking.getParkingLotId(), booking.getStatus(), newStatus, 1);
         booking.setStatus(newStatus);
         Booking savedBooking = bookingRepository.save(booking);
 
-        return convertToBookingResponse(savedBooking);
+        return toBookingResponse(savedBooking);
+    }
+
+    /**
+     * Join the waitlist of a parking lot for a time window.
+     * The entry becomes a PENDING booking as soon as a space for its window is free, in arrival order.
+     */
+    @Transactional
+    public BookingDto.WaitlistResponse joinWaitlist(BookingDto.CreateBookingRequest request, AuthenticatedUser user) {
+        if (!slotInventory.isTracked(request.getParkingLotId())) {
+            ParkingSlot parkingLot = parkingLotRepository.findById(request.getParkingLotId())
+                    .orElseThrow(() -> new IllegalArgumentException("Parking lot not found"));
+            slotInventory.register(parkingLot);
+        }
+
+        BookingWindow window = BookingWindow.resolve(
+                request.getStartTime(), request.getEndTime(), request.getTimingSlot(), LocalDateTime.now());
+
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setUserId(user.getId());
+        entry.setParkingLotId(request.getParkingLotId());
+        entry.setOwnerName(request.getOwnerName());
+        entry.setMobileNo(request.getMobileNo());
+        entry.setVehicalNo(request.getVehicalNo());
+        entry.setVehicalType(request.getVehicalType());
+        entry.setTimingSlot(request.getTimingSlot());
+        entry.setStartTime(window.getStart());
+        entry.setEndTime(window.getEnd());
+        WaitlistEntry savedEntry = waitlistEntryRepository.save(entry);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                waitlist.enqueue(savedEntry.getParkingLotId(), savedEntry.getId(), window);
+                // Serve the entry right away if the lot has room for it
+                waitlist.handOff(savedEntry.getParkingLotId(), null, null);
+            }
+        });
+
+        return toWaitlistResponse(savedEntry);
+    }
+
+    public List<BookingDto.WaitlistResponse> getUserWaitlist(AuthenticatedUser user) {
+        return waitlistEntryRepository.findByUserIdOrderByIdDesc(user.getId()).stream()
+                .map(this::toWaitlistResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public void leaveWaitlist(Long entryId, AuthenticatedUser user) {
+        WaitlistEntry entry = waitlistEntryRepository.findByIdForUpdate(entryId)
+                .orElseThrow(() -> new IllegalArgumentException("Waitlist entry not found"));
+        if (!entry.getUserId().equals(user.getId())) {
+            throw new IllegalArgumentException("You can only leave your own waitlist entries");
+        }
+        if (!"WAITING".equals(entry.getStatus())) {
+            throw new IllegalArgumentException("Waitlist entry is already " + entry.getStatus());
+        }
+
+        entry.setStatus("CANCELLED");
+        waitlistEntryRepository.save(entry);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                waitlist.remove(entry.getParkingLotId(), entry.getId());
+            }
+        });
+    }
+
+    /**
+     * Turn a waitlist entry into a booking once Waitlist has reserved a space for it.
+     * Runs in its own transaction because it is triggered after the cancellation that freed the space
+     * has committed; any failure is reported back to Waitlist, which passes the space on.
+     */
+    @EventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void fulfilWaitlistEntry(WaitlistClaimedEvent event) {
+        WaitlistEntry entry = waitlistEntryRepository.findByIdForUpdate(event.getEntryId())
+                .orElseThrow(() -> new IllegalStateException("Waitlist entry not found"));
+        if (!"WAITING".equals(entry.getStatus())) {
+            throw new IllegalStateException("Waitlist entry is no longer waiting");
+        }
+
+        BookingDto.CreateBookingRequest request = new BookingDto.CreateBookingRequest();
+        request.setParkingLotId(entry.getParkingLotId());
+        request.setOwnerName(entry.getOwnerName());
+        request.setMobileNo(entry.getMobileNo());
+        request.setVehicalNo(entry.getVehicalNo());
+        request.setVehicalType(entry.getVehicalType());
+        request.setTimingSlot(entry.getTimingSlot());
+        request.setStartTime(entry.getStartTime());
+        request.setEndTime(entry.getEndTime());
+
+        Map<Long, List<BookingWindow>> windowsByLot = Map.of(event.getParkingLotId(), List.of(event.getWindow()));
+        Booking booking = persistBookings(entry.getUserId(), List.of(request), List.of(event.getWindow()), windowsByLot,
+                LocalDateTime.now()).get(0);
+
+        entry.setStatus("FULFILLED");
+        entry.setBookingId(booking.getId());
+        waitlistEntryRepository.save(entry);
+    }
+
+    /**
+     * Cancel PENDING bookings whose hold ran out, releasing their spaces like a user cancellation.
+     * Bookings confirmed or cancelled in the meantime are skipped.
+     */
+    @EventListener
+    @Transactional
+    public void expireHolds(HoldsExpiredEvent event) {
+        List<Booking> expired = bookingRepository.findPendingByIdsForUpdate(event.getBookingIds());
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        releaseSlots(expired);
+        expired.stream()
+                .collect(Collectors.groupingBy(Booking::getParkingLotId, Collectors.counting()))
+                .forEach((parkingLotId, count) ->
+                        bookingStats.moved(parkingLotId, "PENDING", "CANCELLED", count.intValue()));
+        for (Booking booking : expired) {
+            booking.setStatus("CANCELLED");
+        }
+        bookingRepository.saveAll(expired);
+    }
+
+    private void admitBookings(Map<Long, List<BookingWindow>> windowsByLot) {
+        List<Long> admittedLots = new ArrayList<>();
+        try {
+            for (Map.Entry<Long, List<BookingWindow>> entry : windowsByLot.entrySet()) {
+                admitBookings(entry.getKey(), entry.getValue());
+                admittedLots.add(entry.getKey());
+            }
+        } catch (IllegalArgumentException e) {
+            // Give back what was already reserved on other lots
+            for (Long parkingLotId : admittedLots) {
+                for (BookingWindow window : windowsByLot.get(parkingLotId)) {
+                    slotInventory.release(parkingLotId, window.getStart(), window.getEnd());
+                }
+            }
+            throw e;
+        }
+    }
+
+    private void admitBookings(Long parkingLotId, List<BookingWindow> windows) {
+        SlotInventory.Admission admission = slotInventory.tryAcquire(parkingLotId, windows);
+        if (admission == SlotInventory.Admission.UNKNOWN_LOT) {
+            // Lot not tracked yet (e.g. created on another instance), load it once
+            Optional<ParkingSlot> optionalParkingLot = parkingLotRepository.findById(parkingLotId);
+            if (optionalParkingLot.isEmpty()) {
+                throw new IllegalArgumentException("Parking lot not found");
+            }
+            slotInventory.register(optionalParkingLot.get());
+            admission = slotInventory.tryAcquire(parkingLotId, windows);
+        }
+
+        switch (admission) {
+            case CLOSED:
+                throw new IllegalArgumentException("Parking lot is currently closed");
+            case FULL:
+                throw new IllegalArgumentException(NO_AVAILABLE_SLOTS);
+            case OUTSIDE_HORIZON:
+                throw new IllegalArgumentException("Bookings can only be made up to "
+                        + slotInventory.getHorizonDays() + " days in advance");
+            case UNKNOWN_LOT:
+                throw new IllegalArgumentException("Parking lot not found");
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Check new bookings against the lot's capacity and the active bookings stored for their windows.
+     * SlotInventory only knows this instance's bookings; here the lot row lock orders bookings across instances.
+     */
+    private boolean fitsStoredBookings(Long parkingLotId, List<BookingWindow> windows) {
+        Integer totalSlots = parkingLotRepository.lockTotalSlots(parkingLotId);
+        LocalDateTime from = windows.stream().map(BookingWindow::getStart).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime to = windows.stream().map(BookingWindow::getEnd).max(Comparator.naturalOrder()).orElseThrow();
+        List<BookingWindow> stored = bookingRepository.findActiveOverlappingForUpdate(parkingLotId, from, to).stream()
+                .map(booking -> new BookingWindow(booking.getStartTime(), booking.getEndTime()))
+                .collect(Collectors.toList());
+        return totalSlots != null && BookingWindow.peakWithin(stored, windows) <= totalSlots;
+    }
+
+    private IllegalArgumentException rejectionFor(Long parkingLotId) {
+        Optional<ParkingSlot> optionalParkingLot = parkingLotRepository.findById(parkingLotId);
+        if (optionalParkingLot.isEmpty()) {
+            slotInventory.remove(parkingLotId);
+            return new IllegalArgumentException("Parking lot not found");
+        }
+
+        ParkingSlot parkingLot = optionalParkingLot.get();
+        slotInventory.register(parkingLot);
+        return new IllegalArgumentException("Parking lot is currently closed");
+    }
+
+    /**
+     * Release reserved windows if the transaction does not commit.
+     * The returned action releases them right away; either way they are released at most once.
+     */
+    private Runnable releaseSlotsOnRollback(Map<Long, List<BookingWindow>> windowsByLot) {
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                windowsByLot.forEach((parkingLotId, windows) -> windows.forEach(window ->
+                        slotInventory.release(parkingLotId, window.getStart(), window.getEnd())));
+            }
+        };
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    release.run();
+                }
+            }
+        });
+        return release;
+    }
+
+    /**
+     * Give back the spaces of bookings being cancelled: one counter update per lot now,
+     * and the in-memory windows once the cancellation has committed
+     */
+    private void releaseSlots(List<Booking> cancelled) {
+        Map<Long, List<Booking>> bookingsByLot = cancelled.stream()
+                .collect(Collectors.groupingBy(Booking::getParkingLotId, LinkedHashMap::new, Collectors.toList()));
+        bookingsByLot.forEach((parkingLotId, bookings) -> {
+            parkingLotRepository.decrementBookedSlots(parkingLotId, bookings.size());
+            eventPublisher.publishEvent(new ParkingLotChangedEvent(parkingLotId));
+        });
+
+        // Freed spaces go to the lot's waitlist first
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                for (Booking booking : cancelled) {
+                    waitlist.handOff(booking.getParkingLotId(), booking.getStartTime(), booking.getEndTime());
+                }
+            }
+        });
+    }
+
+    private void scheduleHoldsAfterCommit(List<Booking> bookings) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                for (Booking booking : bookings) {
+                    holdExpiryScheduler.schedule(booking.getId(), booking.getCreatedAt());
+                }
+            }
+        });
+    }
+
+    private void cancelHoldAfterCommit(Long bookingId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                holdExpiryScheduler.cancel(bookingId);
+            }
+        });
     }
 
     private boolean isValidStatusTransition(String currentStatus, String newStatus) {
@@ -146,31 +533,25 @@ public class BookingService {
         }
     }
 
-    private BookingDto.BookingResponse convertToBookingResponse(Booking booking) {
-        // Get parking lot details
-        Optional<ParkingSlot> optionalParkingLot = parkingLotRepository.findById(booking.getParkingLotId());
-        String parkingLotName = "";
-        String parkingLotAddress = "";
-        
-        if (optionalParkingLot.isPresent()) {
-            ParkingSlot parkingLot = optionalParkingLot.get();
-            parkingLotName = parkingLot.getName();
-            parkingLotAddress = parkingLot.getAddress();
-        }
-
-        return new BookingDto.BookingResponse(
-                booking.getId(),
-                booking.getUserId(),
-                booking.getParkingLotId(),
-                parkingLotName,
-                parkingLotAddress,
-                booking.getOwnerName(),
-                booking.getMobileNo(),
-                booking.getVehicalNo(),
-                booking.getVehicalType(),
-                booking.getTimingSlot(),
-                booking.getCreatedAt(),
-                booking.getStatus()
-        );
+    private BookingDto.WaitlistResponse toWaitlistResponse(WaitlistEntry entry) {
+        // Position is unknown (null) until the entry is queued, which happens when its transaction commits
+        int queued = "WAITING".equals(entry.getStatus()) ? waitlist.position(entry.getParkingLotId(), entry.getId()) : 0;
+        Integer position = queued > 0 ? queued : null;
+        return new BookingDto.WaitlistResponse(entry.getId(), entry.getParkingLotId(), entry.getTimingSlot(),
+                entry.getStartTime(), entry.getEndTime(), entry.getStatus(), position, entry.getBookingId(),
+                entry.getCreatedAt());
+    }
+
+    /**
+     * Build the response from the saved entity without flushing it; the lot comes from the persistence
+     * context when this transaction already loaded it, otherwise from one primary key lookup
+     */
+    private BookingDto.BookingResponse toBookingResponse(Booking booking) {
+        ParkingSlot parkingLot = parkingLotRepository.findById(booking.getParkingLotId()).orElse(null);
+        return new BookingDto.BookingResponse(booking.getId(), booking.getUserId(), booking.getParkingLotId(),
+                parkingLot == null ? "" : parkingLot.getName(), parkingLot == null ? "" : parkingLot.getAddress(),
+                booking.getOwnerName(), booking.getMobileNo(), booking.getVehicalNo(), booking.getVehicalType(),
+                booking.getTimingSlot(), booking.getStartTime(), booking.getEndTime(), booking.getCreatedAt(),
+                booking.getStatus());
     }
 }
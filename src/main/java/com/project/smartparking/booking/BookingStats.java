@@ -0,0 +1,152 @@
+package com.project.smartparking.booking;
+
+import com.project.smartparking.parkinglot.ParkingLotRepository;
+import com.project.smartparking.repository.LotBookingStat;
+import com.project.smartparking.repository.ParkingSlot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Per-lot, per-status booking counters stored in lot_booking_stats.
+ * Every booking status change adjusts the counters in the same transaction, so the delete guard
+ * and the admin dashboard read a handful of rows instead of scanning the booking table.
+ */
+@Component
+public class BookingStats {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingStats.class);
+
+    public static final List<String> STATUSES = List.of("PENDING", "CONFIRMED", "COMPLETED", "CANCELLED");
+
+    private static final String INSERT_SQL =
+            "INSERT INTO lot_booking_stats (lot_id, status, booking_count) VALUES (?, ?, ?)";
+
+    @Autowired
+    private LotBookingStatsRepository lotBookingStatsRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ParkingLotRepository parkingLotRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Create the counters of lots that have none yet (lots that predate the table) from one GROUP BY
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        Set<Long> trackedLots = lotBookingStatsRepository.findAll().stream()
+                .map(LotBookingStat::getParkingLotId)
+                .collect(Collectors.toSet());
+        List<Long> missingLots = parkingLotRepository.findAll().stream()
+                .map(ParkingSlot::getId)
+                .filter(id -> !trackedLots.contains(id))
+                .collect(Collectors.toList());
+        if (missingLots.isEmpty()) {
+            return;
+        }
+
+        Map<LotBookingStat.Key, Long> counts = new HashMap<>();
+        for (BookingRepository.StatusCount row : bookingRepository.countByLotAndStatus()) {
+            counts.put(new LotBookingStat.Key(row.getParkingLotId(), row.getStatus()), row.getCount());
+        }
+
+        List<Object[]> rows = new ArrayList<>();
+        for (Long parkingLotId : missingLots) {
+            for (String status : STATUSES) {
+                long count = counts.getOrDefault(new LotBookingStat.Key(parkingLotId, status), 0L);
+                rows.add(new Object[] {parkingLotId, status, count});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        log.info("Backfilled booking counters for {} parking lots", missingLots.size());
+    }
+
+    /**
+     * Create zeroed counters for a new parking lot
+     */
+    public void initialize(Long parkingLotId) {
+        initializeAll(List.of(parkingLotId));
+    }
+
+    /**
+     * Create zeroed counters for many new lots at once, as plain JDBC batch inserts in the caller's transaction
+     * (saveAll would merge each row, reading it back first since its id is assigned)
+     */
+    public void initializeAll(Collection<Long> parkingLotIds) {
+        List<Object[]> rows = new ArrayList<>(parkingLotIds.size() * STATUSES.size());
+        for (Long parkingLotId : parkingLotIds) {
+            for (String status : STATUSES) {
+                rows.add(new Object[] {parkingLotId, status, 0L});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+
+    public void remove(Long parkingLotId) {
+        lotBookingStatsRepository.deleteByParkingLot(parkingLotId);
+    }
+
+    /**
+     * Count new bookings; must run inside the transaction that creates them, before they are written
+     */
+    public void added(Long parkingLotId, String status, int count) {
+        adjust(parkingLotId, status, count);
+    }
+
+    /**
+     * Move bookings from one status to another; must run inside the transaction that changes them,
+     * before the new status is written
+     */
+    public void moved(Long parkingLotId, String fromStatus, String toStatus, int count) {
+        adjust(parkingLotId, fromStatus, -count);
+        adjust(parkingLotId, toStatus, count);
+    }
+
+    /**
+     * PENDING plus CONFIRMED bookings of a lot
+     */
+    public long countActive(Long parkingLotId) {
+        return lotBookingStatsRepository.countActive(parkingLotId);
+    }
+
+    /**
+     * Booking counts of a lot by status, with every status present
+     */
+    public Map<String, Long> countsByStatus(Long parkingLotId) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        STATUSES.forEach(status -> counts.put(status, 0L));
+        for (LotBookingStat stat : lotBookingStatsRepository.findByParkingLotId(parkingLotId)) {
+            counts.put(stat.getStatus(), stat.getCount());
+        }
+        return counts;
+    }
+
+    private void adjust(Long parkingLotId, String status, long delta) {
+        if (lotBookingStatsRepository.adjust(parkingLotId, status, delta) == 0) {
+            // Lot created on an instance without counters; start the row from the bookings already stored,
+            // which do not include this change yet
+            long stored = bookingRepository.countByParkingLotIdAndStatus(parkingLotId, status);
+            jdbcTemplate.update(INSERT_SQL, parkingLotId, status, stored + delta);
+        }
+    }
+}
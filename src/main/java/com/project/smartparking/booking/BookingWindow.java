@@ -0,0 +1,108 @@
+package com.project.smartparking.booking;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The time window [start, end) a booking occupies a space
+ */
+public class BookingWindow {
+
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+
+    public BookingWindow(LocalDateTime start, LocalDateTime end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    public LocalDateTime getStart() { return start; }
+
+    public LocalDateTime getEnd() { return end; }
+
+    /**
+     * Resolve the window of a booking request.
+     * Explicit startTime/endTime win; otherwise the timing slot ("09:00-17:00") is taken as its next
+     * occurrence that has not ended yet, rolling over midnight when the end is before the start.
+     */
+    public static BookingWindow resolve(LocalDateTime startTime, LocalDateTime endTime, String timingSlot,
+                                        LocalDateTime now) {
+        if (startTime != null || endTime != null) {
+            if (startTime == null || endTime == null) {
+                throw new IllegalArgumentException("Both startTime and endTime are required");
+            }
+            return validated(new BookingWindow(startTime, endTime), now);
+        }
+
+        String[] parts = timingSlot == null ? new String[0] : timingSlot.split("-");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Timing slot must look like HH:mm-HH:mm");
+        }
+
+        LocalTime from;
+        LocalTime to;
+        try {
+            from = LocalTime.parse(parts[0].trim());
+            to = LocalTime.parse(parts[1].trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Timing slot must look like HH:mm-HH:mm");
+        }
+
+        LocalDate day = now.toLocalDate();
+        LocalDateTime start = day.atTime(from);
+        LocalDateTime end = to.isAfter(from) ? day.atTime(to) : day.plusDays(1).atTime(to);
+        if (!end.isAfter(now)) {
+            start = start.plusDays(1);
+            end = end.plusDays(1);
+        }
+        return validated(new BookingWindow(start, end), now);
+    }
+
+    /**
+     * Highest number of windows in use at the same instant, counted only at instants some added window covers.
+     * Ends sort before starts at the same instant, since windows are end-exclusive.
+     */
+    public static int peakWithin(List<BookingWindow> stored, List<BookingWindow> added) {
+        List<long[]> events = new ArrayList<>((stored.size() + added.size()) * 2);
+        // {time, delta, 1 for an added window}
+        for (BookingWindow window : stored) {
+            events.add(new long[] {window.start.toEpochSecond(ZoneOffset.UTC), 1, 0});
+            events.add(new long[] {window.end.toEpochSecond(ZoneOffset.UTC), -1, 0});
+        }
+        for (BookingWindow window : added) {
+            events.add(new long[] {window.start.toEpochSecond(ZoneOffset.UTC), 1, 1});
+            events.add(new long[] {window.end.toEpochSecond(ZoneOffset.UTC), -1, 1});
+        }
+        events.sort(Comparator.<long[]>comparingLong(event -> event[0]).thenComparingLong(event -> event[1]));
+
+        int inUse = 0;
+        int addedInUse = 0;
+        int peak = 0;
+        for (long[] event : events) {
+            inUse += (int) event[1];
+            if (event[2] == 1) {
+                addedInUse += (int) event[1];
+            }
+            if (addedInUse > 0) {
+                peak = Math.max(peak, inUse);
+            }
+        }
+        return peak;
+    }
+
+    private static BookingWindow validated(BookingWindow window, LocalDateTime now) {
+        if (!window.end.isAfter(window.start)) {
+            throw new IllegalArgumentException("Booking end time must be after its start time");
+        }
+        if (!window.end.isAfter(now)) {
+            throw new IllegalArgumentException("Booking time window is already over");
+        }
+        return window;
+    }
+}
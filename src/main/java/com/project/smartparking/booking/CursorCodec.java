@@ -0,0 +1,38 @@
+package com.project.smartparking.booking;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.util.Base64;
+import java.util.function.BiFunction;
+
+/**
+ * Wire format shared by the opaque keyset cursors: "key|id" in URL-safe Base64 without padding.
+ * The id follows the last separator, so keys may contain '|'.
+ */
+public final class CursorCodec {
+
+    private CursorCodec() {
+    }
+
+    public static String encode(Object key, Long id) {
+        String raw = key + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Split a cursor into its key and id and build the cursor from them
+     * @throws IllegalArgumentException if the cursor is malformed or the factory rejects its key
+     */
+    public static <T> T decode(String cursor, BiFunction<String, Long, T> factory) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return factory.apply(raw.substring(0, separator), Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.project.smartparking.booking;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Expires PENDING bookings that were not confirmed within the hold TTL.
+ * Each hold is a timer in a hierarchical timing wheel, so scheduling, cancelling and firing a hold
+ * are O(1) and the booking table is only read once, at startup, to rebuild the wheel.
+ * Expired ids are published as {@link HoldsExpiredEvent}s; BookingService cancels them.
+ */
+@Component
+public class HoldExpiryScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(HoldExpiryScheduler.class);
+
+    private static final int WHEEL_SIZE = 64;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.booking.hold-ttl:PT15M}")
+    private Duration holdTtl;
+
+    @Value("${app.booking.hold-expiry.tick-ms:1000}")
+    private long tickMs;
+
+    @Value("${app.booking.hold-expiry.batch-size:100}")
+    private int batchSize;
+
+    private TimingWheel<Long> wheel;
+
+    private final ConcurrentHashMap<Long, TimingWheel.Timer<Long>> holds = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService ticker;
+
+    @PostConstruct
+    void init() {
+        wheel = new TimingWheel<>(tickMs, WHEEL_SIZE, System.currentTimeMillis());
+    }
+
+    /**
+     * Rebuild the wheel from the PENDING bookings in the database and start ticking
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        List<Long> overdue = new ArrayList<>();
+        for (BookingRepository.PendingHold hold : bookingRepository.findPendingHolds()) {
+            if (!schedule(hold.getId(), hold.getCreatedAt())) {
+                overdue.add(hold.getId());
+            }
+        }
+        log.info("Tracking {} pending booking holds, {} already expired", holds.size(), overdue.size());
+        publish(overdue);
+
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "booking-hold-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    /**
+     * Start the hold timer of a PENDING booking; returns false if its hold has already run out
+     */
+    public boolean schedule(Long bookingId, LocalDateTime createdAt) {
+        long deadline = createdAt.plus(holdTtl).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        TimingWheel.Timer<Long> timer = wheel.add(deadline, bookingId);
+        if (timer == null) {
+            return false;
+        }
+        holds.put(bookingId, timer);
+        return true;
+    }
+
+    /**
+     * Stop the hold timer of a booking that left PENDING
+     */
+    public void cancel(Long bookingId) {
+        TimingWheel.Timer<Long> timer = holds.remove(bookingId);
+        if (timer != null) {
+            timer.cancel();
+        }
+    }
+
+    private void tick() {
+        List<Long> expired = wheel.advanceTo(System.currentTimeMillis());
+        expired.forEach(holds::remove);
+        publish(expired);
+    }
+
+    private void publish(List<Long> bookingIds) {
+        for (int i = 0; i < bookingIds.size(); i += batchSize) {
+            List<Long> batch = new ArrayList<>(bookingIds.subList(i, Math.min(i + batchSize, bookingIds.size())));
+            try {
+                eventPublisher.publishEvent(new HoldsExpiredEvent(batch));
+            } catch (RuntimeException e) {
+                // Keep ticking; the holds of a failed batch stay PENDING until they are rescheduled on restart
+                log.error("Failed to expire booking holds {}", batch, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.project.smartparking.booking;
+
+import java.util.List;
+
+/**
+ * Published by {@link HoldExpiryScheduler} with a batch of PENDING bookings whose hold ran out
+ */
+public class HoldsExpiredEvent {
+
+    private final List<Long> bookingIds;
+
+    public HoldsExpiredEvent(List<Long> bookingIds) {
+        this.bookingIds = bookingIds;
+    }
+
+    public List<Long> getBookingIds() { return bookingIds; }
+}
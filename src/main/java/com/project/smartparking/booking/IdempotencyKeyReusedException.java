@@ -0,0 +1,11 @@
+package com.project.smartparking.booking;
+
+/**
+ * Thrown when an Idempotency-Key is sent again with a different request body; answered with 422
+ */
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    public IdempotencyKeyReusedException() {
+        super("This Idempotency-Key was already used for a different request");
+    }
+}
@@ -0,0 +1,188 @@
+package com.project.smartparking.booking;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.smartparking.repository.IdempotencyRecord;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers the response of booking requests sent with an Idempotency-Key header,
+ * so a retried request is answered from a hash lookup instead of creating a second booking.
+ * Each key also keeps a hash of the request it was first used with; reusing the key for a different
+ * request is an error rather than a replay of an unrelated booking.
+ * Recent keys live in a bounded, time-expiring in-memory cache; every key is also stored in the
+ * idempotency_key table, written in the same transaction as the booking itself.
+ */
+@Component
+public class IdempotencyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.booking.idempotency.ttl:PT24H}")
+    private Duration ttl;
+
+    @Value("${app.booking.idempotency.max-entries:10000}")
+    private int maxEntries;
+
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    private Cache<String, CachedResponse> recent;
+
+    @PostConstruct
+    void init() {
+        recent = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Look up the stored response for a key, first in memory and then in the database
+     * @throws IdempotencyKeyReusedException if the key was stored for a different request
+     */
+    public Optional<BookingDto.BookingResponse> find(String userEmail, String key,
+                                                     BookingDto.CreateBookingRequest request) {
+        String scopeKey = scopeKey(userEmail, key);
+        String requestHash = requestHash(request);
+        LocalDateTime cutoff = LocalDateTime.now().minus(ttl);
+
+        CachedResponse cached = recent.getIfPresent(scopeKey);
+        // A key read back from the table is cached for a full TTL, so its own age is checked as well
+        if (cached != null && cached.createdAt.isAfter(cutoff)) {
+            checkSameRequest(cached.requestHash, requestHash);
+            return Optional.of(cached.response);
+        }
+
+        IdempotencyRecord record = idempotencyRecordRepository.findByScopeKey(scopeKey);
+        if (record == null || !record.getCreatedAt().isAfter(cutoff)) {
+            return Optional.empty();
+        }
+        checkSameRequest(record.getRequestHash(), requestHash);
+
+        try {
+            BookingDto.BookingResponse response =
+                    objectMapper.readValue(record.getResponseBody(), BookingDto.BookingResponse.class);
+            remember(scopeKey, record.getRequestHash(), response, record.getCreatedAt());
+            return Optional.of(response);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable idempotency record {}", record.getId(), e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Mark a key as being processed; returns false if another request with the same key is running
+     */
+    public boolean begin(String userEmail, String key) {
+        return inFlight.add(scopeKey(userEmail, key));
+    }
+
+    public void end(String userEmail, String key) {
+        inFlight.remove(scopeKey(userEmail, key));
+    }
+
+    /**
+     * Store the response for a key as part of the current transaction.
+     * The unique scope_key column makes a concurrent duplicate on another instance roll back;
+     * an expired row for the same key that the purge has not reached yet is replaced.
+     */
+    public void record(String userEmail, String key, BookingDto.CreateBookingRequest request,
+                       BookingDto.BookingResponse response) {
+        String scopeKey = scopeKey(userEmail, key);
+        String requestHash = requestHash(request);
+
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setScopeKey(scopeKey);
+        record.setRequestHash(requestHash);
+        try {
+            record.setResponseBody(objectMapper.writeValueAsString(response));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize booking response", e);
+        }
+        idempotencyRecordRepository.deleteByScopeKeyCreatedBefore(scopeKey, LocalDateTime.now().minus(ttl));
+        idempotencyRecordRepository.save(record);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remember(scopeKey, requestHash, response, record.getCreatedAt());
+            }
+        });
+    }
+
+    /**
+     * Drop expired keys from the table; the in-memory cache expires its entries by itself
+     */
+    @Scheduled(fixedDelayString = "${app.booking.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int purged = idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+        if (purged > 0) {
+            log.debug("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    private void remember(String scopeKey, String requestHash, BookingDto.BookingResponse response,
+                          LocalDateTime createdAt) {
+        recent.put(scopeKey, new CachedResponse(requestHash, response, createdAt));
+    }
+
+    // Keys stored before request hashes were recorded have none and are still replayed
+    private static void checkSameRequest(String storedHash, String requestHash) {
+        if (storedHash != null && !storedHash.equals(requestHash)) {
+            throw new IdempotencyKeyReusedException();
+        }
+    }
+
+    // Hash of the request as JSON; the DTO serializes its fields in declaration order, so equal requests match
+    private String requestHash(BookingDto.CreateBookingRequest request) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(request);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize booking request", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private String scopeKey(String userEmail, String key) {
+        return userEmail + ":" + key;
+    }
+
+    private static final class CachedResponse {
+        private final String requestHash;
+        private final BookingDto.BookingResponse response;
+        private final LocalDateTime createdAt;
+
+        private CachedResponse(String requestHash, BookingDto.BookingResponse response, LocalDateTime createdAt) {
+            this.requestHash = requestHash;
+            this.response = response;
+            this.createdAt = createdAt;
+        }
+    }
+}
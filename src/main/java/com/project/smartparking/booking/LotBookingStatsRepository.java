@@ -0,0 +1,32 @@
+package com.project.smartparking.booking;
+
+import com.project.smartparking.repository.LotBookingStat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface LotBookingStatsRepository extends JpaRepository<LotBookingStat, LotBookingStat.Key> {
+
+    List<LotBookingStat> findByParkingLotId(Long parkingLotId);
+
+    /**
+     * Add delta to one counter; returns 0 when the row does not exist yet
+     */
+    @Modifying
+    @Query("UPDATE LotBookingStat s SET s.count = s.count + :delta " +
+           "WHERE s.parkingLotId = :parkingLotId AND s.status = :status")
+    int adjust(@Param("parkingLotId") Long parkingLotId, @Param("status") String status, @Param("delta") long delta);
+
+    @Query("SELECT COALESCE(SUM(s.count), 0) FROM LotBookingStat s " +
+           "WHERE s.parkingLotId = :parkingLotId AND s.status IN ('PENDING', 'CONFIRMED')")
+    long countActive(@Param("parkingLotId") Long parkingLotId);
+
+    @Modifying
+    @Query("DELETE FROM LotBookingStat s WHERE s.parkingLotId = :parkingLotId")
+    int deleteByParkingLot(@Param("parkingLotId") Long parkingLotId);
+}
@@ -0,0 +1,146 @@
+package com.project.smartparking.booking;
+
+import java.util.Arrays;
+
+/**
+ * Occupancy of one parking lot over a rolling horizon of fixed-size time buckets.
+ * Buckets live in a ring indexed by absolute bucket number; a lazy segment tree over the ring
+ * answers "peak occupancy between two buckets" and applies "+/-1 over a window" in O(log n).
+ * Buckets that fall behind the current time are cleared and reused for the far end of the horizon.
+ * Not thread-safe; callers synchronize per lot.
+ */
+class OccupancyTimeline {
+
+    private final int buckets;
+    private final int size;
+    private final int[] max;
+    private final int[] lazy;
+    private long base = Long.MIN_VALUE;
+
+    OccupancyTimeline(int buckets) {
+        this.buckets = buckets;
+        int size = 1;
+        while (size < buckets) {
+            size <<= 1;
+        }
+        this.size = size;
+        this.max = new int[2 * size];
+        this.lazy = new int[2 * size];
+    }
+
+    /**
+     * First absolute bucket still covered by the timeline
+     */
+    long base() {
+        return base;
+    }
+
+    /**
+     * Last absolute bucket covered by the timeline
+     */
+    long last() {
+        return base + buckets - 1;
+    }
+
+    /**
+     * Move the start of the horizon forward, clearing the buckets that are now in the past
+     */
+    void advanceTo(long currentBucket) {
+        if (base == Long.MIN_VALUE) {
+            base = currentBucket;
+            return;
+        }
+        if (currentBucket <= base) {
+            return;
+        }
+        if (currentBucket - base >= buckets) {
+            Arrays.fill(max, 0);
+            Arrays.fill(lazy, 0);
+        } else {
+            for (long bucket = base; bucket < currentBucket; bucket++) {
+                int position = position(bucket);
+                int value = query(1, 0, size - 1, position, position);
+                if (value != 0) {
+                    update(1, 0, size - 1, position, position, -value);
+                }
+            }
+        }
+        base = currentBucket;
+    }
+
+    /**
+     * Peak occupancy over the absolute buckets [from, to]; the part before the horizon is ignored
+     */
+    int peak(long from, long to) {
+        from = Math.max(from, base);
+        to = Math.min(to, last());
+        if (to < from) {
+            return 0;
+        }
+        int first = position(from);
+        int second = position(to);
+        if (first <= second) {
+            return query(1, 0, size - 1, first, second);
+        }
+        return Math.max(query(1, 0, size - 1, first, buckets - 1), query(1, 0, size - 1, 0, second));
+    }
+
+    int peak() {
+        return peak(base, last());
+    }
+
+    /**
+     * Add delta to every bucket in [from, to], clipped to the horizon
+     */
+    void add(long from, long to, int delta) {
+        from = Math.max(from, base);
+        to = Math.min(to, last());
+        if (to < from) {
+            return;
+        }
+        int first = position(from);
+        int second = position(to);
+        if (first <= second) {
+            update(1, 0, size - 1, first, second, delta);
+        } else {
+            update(1, 0, size - 1, first, buckets - 1, delta);
+            update(1, 0, size - 1, 0, second, delta);
+        }
+    }
+
+    private int position(long bucket) {
+        return (int) Math.floorMod(bucket, (long) buckets);
+    }
+
+    // max[node] already includes lazy[node]; pending additions are never pushed down
+
+    private void update(int node, int nodeFrom, int nodeTo, int from, int to, int delta) {
+        if (to < nodeFrom || nodeTo < from) {
+            return;
+        }
+        if (from <= nodeFrom && nodeTo <= to) {
+            max[node] += delta;
+            lazy[node] += delta;
+            return;
+        }
+        int mid = (nodeFrom + nodeTo) >>> 1;
+        update(2 * node, nodeFrom, mid, from, to, delta);
+        update(2 * node + 1, mid + 1, nodeTo, from, to, delta);
+        max[node] = lazy[node] + Math.max(max[2 * node], max[2 * node + 1]);
+    }
+
+    private int query(int node, int nodeFrom, int nodeTo, int from, int to) {
+        if (from <= nodeFrom && nodeTo <= to) {
+            return max[node];
+        }
+        int mid = (nodeFrom + nodeTo) >>> 1;
+        int best = Integer.MIN_VALUE;
+        if (from <= mid) {
+            best = query(2 * node, nodeFrom, mid, from, to);
+        }
+        if (to > mid) {
+            best = Math.max(best, query(2 * node + 1, mid + 1, nodeTo, from, to));
+        }
+        return best + lazy[node];
+    }
+}
@@ -0,0 +1,80 @@
+package com.project.smartparking.booking;
+
+import com.project.smartparking.auth.AuthenticatedUser;
+
+import java.time.LocalDateTime;
+
+/**
+ * A booking request accepted by {@link AsyncBookingQueue}, tracked by its ticket id until it is processed
+ */
+public class QueuedBooking {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String SUCCEEDED = "SUCCEEDED";
+    public static final String FAILED = "FAILED";
+
+    private final String ticketId;
+    private final BookingDto.CreateBookingRequest request;
+    private final AuthenticatedUser user;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+
+    private volatile String status = QUEUED;
+    private volatile BookingDto.BookingResponse response;
+    private volatile String error;
+    private volatile LocalDateTime completedAt;
+
+    // Outcome of the current processing attempt, published by complete()
+    private BookingDto.BookingResponse pendingResponse;
+    private String pendingError;
+
+    QueuedBooking(String ticketId, BookingDto.CreateBookingRequest request, AuthenticatedUser user) {
+        this.ticketId = ticketId;
+        this.request = request;
+        this.user = user;
+    }
+
+    public String getTicketId() { return ticketId; }
+
+    public BookingDto.CreateBookingRequest getRequest() { return request; }
+
+    public AuthenticatedUser getUser() { return user; }
+
+    public LocalDateTime getSubmittedAt() { return submittedAt; }
+
+    public String getStatus() { return status; }
+
+    public BookingDto.BookingResponse getResponse() { return response; }
+
+    public String getError() { return error; }
+
+    public LocalDateTime getCompletedAt() { return completedAt; }
+
+    void created(BookingDto.BookingResponse bookingResponse) {
+        pendingResponse = bookingResponse;
+        pendingError = null;
+    }
+
+    void rejected(String message) {
+        pendingResponse = null;
+        pendingError = message;
+    }
+
+    boolean isRejected() {
+        return pendingError != null;
+    }
+
+    void discardOutcome() {
+        pendingResponse = null;
+        pendingError = null;
+    }
+
+    /**
+     * Make the outcome visible to pollers once its transaction has committed
+     */
+    void complete() {
+        response = pendingResponse;
+        error = pendingResponse == null && pendingError == null ? "Booking could not be created" : pendingError;
+        completedAt = LocalDateTime.now();
+        status = pendingResponse != null ? SUCCEEDED : FAILED;
+    }
+}
@@ -0,0 +1,276 @@
+package com.project.smartparking.booking;
+
+import com.project.smartparking.parkinglot.ParkingLotRepository;
+import com.project.smartparking.repository.ParkingSlot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory capacity ledger for parking lots.
+ * Each lot keeps an occupancy timeline over a rolling horizon, so a booking is admitted when the
+ * lot has a free space for its own time window rather than when fewer than totalSlots bookings exist.
+ * Admission happens here before any SQL is issued, so most rejections never reach the database;
+ * BookingService then re-checks the lot under a row lock, which also sees bookings made on other instances.
+ */
+@Component
+public class SlotInventory {
+
+    private static final Logger log = LoggerFactory.getLogger(SlotInventory.class);
+
+    public enum Admission {
+        ADMITTED,
+        FULL,
+        CLOSED,
+        UNKNOWN_LOT,
+        OUTSIDE_HORIZON
+    }
+
+    @Autowired
+    private ParkingLotRepository parkingLotRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Value("${app.booking.availability.bucket-minutes:15}")
+    private int bucketMinutes;
+
+    @Value("${app.booking.availability.horizon-days:14}")
+    private int horizonDays;
+
+    private final ConcurrentHashMap<Long, LotCapacity> lots = new ConcurrentHashMap<>();
+
+    /**
+     * Seed the ledger from the database once the application has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        for (ParkingSlot parkingLot : parkingLotRepository.findAll()) {
+            register(parkingLot);
+        }
+
+        // Legacy bookings without a window hold their space until the end of the horizon (its last whole bucket,
+        // so the space is given back from a timeline that has moved on since without going below zero)
+        LocalDateTime now = LocalDateTime.now();
+        int backfilled = bookingRepository.backfillMissingWindows(now.plusDays(horizonDays).minusMinutes(bucketMinutes));
+        if (backfilled > 0) {
+            log.info("Gave {} active bookings without a time window one ending with the booking horizon", backfilled);
+        }
+
+        for (BookingRepository.ActiveWindow window : bookingRepository.findActiveWindowsEndingAfter(now)) {
+            LotCapacity capacity = lots.get(window.getParkingLotId());
+            if (capacity == null) {
+                continue;
+            }
+            synchronized (capacity) {
+                capacity.timeline(now).add(bucketOf(window.getStartTime()), lastBucketOf(window.getEndTime()), 1);
+            }
+        }
+    }
+
+    /**
+     * Track a parking lot, or refresh its capacity and open flag if already tracked
+     */
+    public void register(ParkingSlot parkingLot) {
+        lots.compute(parkingLot.getId(), (id, existing) -> {
+            if (existing == null) {
+                return new LotCapacity(parkingLot.getTotalSlots(), parkingLot.getIsOpen());
+            }
+            existing.totalSlots = parkingLot.getTotalSlots();
+            existing.open = parkingLot.getIsOpen();
+            return existing;
+        });
+    }
+
+    /**
+     * Refuse an edit that shrinks a lot below its busiest window; the edit is applied with
+     * {@link #register(ParkingSlot)} once it commits. Bookings admitted in between still wait for the lot row
+     * the edit holds locked, and are checked against the new capacity there.
+     */
+    public void checkResize(ParkingSlot parkingLot) {
+        LotCapacity capacity = lots.get(parkingLot.getId());
+        if (capacity == null) {
+            return;
+        }
+        synchronized (capacity) {
+            int totalSlots = parkingLot.getTotalSlots();
+            if (totalSlots < capacity.totalSlots) {
+                int peak = capacity.timeline(LocalDateTime.now()).peak();
+                if (totalSlots < peak) {
+                    throw new IllegalArgumentException("Total slots cannot be less than currently booked slots (" +
+                            peak + ")");
+                }
+            }
+        }
+    }
+
+    public void remove(Long parkingLotId) {
+        lots.remove(parkingLotId);
+    }
+
+    public boolean isTracked(Long parkingLotId) {
+        return lots.containsKey(parkingLotId);
+    }
+
+    public int getHorizonDays() {
+        return horizonDays;
+    }
+
+    /**
+     * Try to reserve one space per window in the given parking lot.
+     * All windows are admitted together or none is, so a batch never half-fills a lot.
+     */
+    public Admission tryAcquire(Long parkingLotId, List<BookingWindow> windows) {
+        LotCapacity capacity = lots.get(parkingLotId);
+        if (capacity == null) {
+            return Admission.UNKNOWN_LOT;
+        }
+        if (!capacity.open) {
+            return Admission.CLOSED;
+        }
+
+        synchronized (capacity) {
+            OccupancyTimeline timeline = capacity.timeline(LocalDateTime.now());
+            for (int i = 0; i < windows.size(); i++) {
+                Admission admission = check(capacity, timeline, windows.get(i));
+                if (admission != Admission.ADMITTED) {
+                    // Undo the windows of this call that were already added
+                    for (int j = 0; j < i; j++) {
+                        timeline.add(bucketOf(windows.get(j).getStart()), lastBucketOf(windows.get(j).getEnd()), -1);
+                    }
+                    return admission;
+                }
+                timeline.add(bucketOf(windows.get(i).getStart()), lastBucketOf(windows.get(i).getEnd()), 1);
+            }
+            return Admission.ADMITTED;
+        }
+    }
+
+    /**
+     * Give back a space and, in the same step, reserve one for the first waiting window that now fits,
+     * so a freed space cannot be taken by a newcomer ahead of the waitlist.
+     * Returns the index of the window that got a space, or -1 if none did.
+     */
+    public int releaseAndClaim(Long parkingLotId, LocalDateTime start, LocalDateTime end, List<BookingWindow> waiting) {
+        LotCapacity capacity = lots.get(parkingLotId);
+        if (capacity == null) {
+            return -1;
+        }
+        synchronized (capacity) {
+            OccupancyTimeline timeline = capacity.timeline(LocalDateTime.now());
+            if (start != null && end != null) {
+                timeline.add(bucketOf(start), lastBucketOf(end), -1);
+            }
+            if (!capacity.open) {
+                return -1;
+            }
+            for (int i = 0; i < waiting.size(); i++) {
+                BookingWindow window = waiting.get(i);
+                if (check(capacity, timeline, window) == Admission.ADMITTED) {
+                    timeline.add(bucketOf(window.getStart()), lastBucketOf(window.getEnd()), 1);
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Give back a space previously reserved with {@link #tryAcquire(Long, List)}
+     */
+    public void release(Long parkingLotId, LocalDateTime start, LocalDateTime end) {
+        LotCapacity capacity = lots.get(parkingLotId);
+        if (capacity == null || start == null || end == null) {
+            return;
+        }
+        synchronized (capacity) {
+            capacity.timeline(LocalDateTime.now()).add(bucketOf(start), lastBucketOf(end), -1);
+        }
+    }
+
+    /**
+     * Free spaces for the whole window [from, to), or null if the lot is not tracked
+     */
+    public Integer availableSlots(Long parkingLotId, LocalDateTime from, LocalDateTime to) {
+        LotCapacity capacity = lots.get(parkingLotId);
+        if (capacity == null) {
+            return null;
+        }
+        synchronized (capacity) {
+            int peak = capacity.timeline(LocalDateTime.now()).peak(bucketOf(from), lastBucketOf(to));
+            return Math.max(0, capacity.totalSlots - peak);
+        }
+    }
+
+    /**
+     * Free spaces right now, or null if the lot is not tracked
+     */
+    public Integer availableSlotsNow(Long parkingLotId) {
+        LocalDateTime now = LocalDateTime.now();
+        return availableSlots(parkingLotId, now, now.plusMinutes(1));
+    }
+
+    /**
+     * Highest number of overlapping active bookings anywhere in the horizon
+     */
+    public int peakOccupancy(Long parkingLotId) {
+        LotCapacity capacity = lots.get(parkingLotId);
+        if (capacity == null) {
+            return 0;
+        }
+        synchronized (capacity) {
+            return capacity.timeline(LocalDateTime.now()).peak();
+        }
+    }
+
+    // Caller holds the lot's monitor
+    private Admission check(LotCapacity capacity, OccupancyTimeline timeline, BookingWindow window) {
+        long from = bucketOf(window.getStart());
+        long to = lastBucketOf(window.getEnd());
+        if (to > timeline.last()) {
+            return Admission.OUTSIDE_HORIZON;
+        }
+        if (timeline.peak(from, to) >= capacity.totalSlots) {
+            return Admission.FULL;
+        }
+        return Admission.ADMITTED;
+    }
+
+    private long bucketOf(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), bucketMinutes * 60L);
+    }
+
+    // Windows are end-exclusive, so a booking ending exactly on a bucket boundary does not occupy that bucket
+    private long lastBucketOf(LocalDateTime end) {
+        return bucketOf(end.minusNanos(1));
+    }
+
+    private final class LotCapacity {
+        private volatile int totalSlots;
+        private volatile boolean open;
+        private OccupancyTimeline timeline;
+
+        private LotCapacity(int totalSlots, boolean open) {
+            this.totalSlots = totalSlots;
+            this.open = open;
+        }
+
+        // Allocated on first use so lots without bookings cost nothing; caller holds the lot's monitor
+        private OccupancyTimeline timeline(LocalDateTime now) {
+            if (timeline == null) {
+                timeline = new OccupancyTimeline(horizonDays * 24 * 60 / bucketMinutes);
+            }
+            timeline.advanceTo(bucketOf(now));
+            return timeline;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.project.smartparking.booking;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel.
+ * Adding and cancelling a timer are O(1); each level covers wheelSize ticks of the level below,
+ * and overflow levels are created on demand for deadlines beyond the current range.
+ * When a bucket of an upper level comes due its timers cascade down into finer levels.
+ */
+class TimingWheel<T> {
+
+    static final class Timer<T> {
+        private final long deadlineMs;
+        private final T item;
+        private volatile boolean cancelled;
+
+        private Timer(long deadlineMs, T item) {
+            this.deadlineMs = deadlineMs;
+            this.item = item;
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+    }
+
+    private final Level<T> root;
+
+    TimingWheel(long tickMs, int wheelSize, long startMs) {
+        this.root = new Level<>(tickMs, wheelSize, startMs);
+    }
+
+    /**
+     * Schedule an item; returns null when the deadline is already due
+     */
+    synchronized Timer<T> add(long deadlineMs, T item) {
+        Timer<T> timer = new Timer<>(deadlineMs, item);
+        return root.add(timer) ? timer : null;
+    }
+
+    /**
+     * Advance the clock and return the items whose deadline has come
+     */
+    synchronized List<T> advanceTo(long nowMs) {
+        List<Timer<T>> fired = new ArrayList<>();
+        root.advance(nowMs, fired);
+
+        List<T> due = new ArrayList<>();
+        for (Timer<T> timer : fired) {
+            // Timers from upper levels are re-added and land in a finer bucket unless already due
+            if (!timer.cancelled && !root.add(timer)) {
+                due.add(timer.item);
+            }
+        }
+        return due;
+    }
+
+    private static final class Level<T> {
+        private final long tickMs;
+        private final int wheelSize;
+        private final long interval;
+        private final List<Timer<T>>[] buckets;
+        private final long[] bucketExpiration;
+        private long currentTime;
+        private Level<T> overflow;
+
+        @SuppressWarnings("unchecked")
+        private Level(long tickMs, int wheelSize, long startMs) {
+            this.tickMs = tickMs;
+            this.wheelSize = wheelSize;
+            this.interval = tickMs * wheelSize;
+            this.buckets = new List[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new ArrayList<>();
+            }
+            this.bucketExpiration = new long[wheelSize];
+            Arrays.fill(bucketExpiration, -1L);
+            this.currentTime = startMs - (startMs % tickMs);
+        }
+
+        private boolean add(Timer<T> timer) {
+            if (timer.deadlineMs < currentTime + tickMs) {
+                return false;
+            }
+            if (timer.deadlineMs < currentTime + interval) {
+                long virtualId = timer.deadlineMs / tickMs;
+                int index = (int) (virtualId % wheelSize);
+                buckets[index].add(timer);
+                bucketExpiration[index] = virtualId * tickMs;
+                return true;
+            }
+            if (overflow == null) {
+                overflow = new Level<>(interval, wheelSize, currentTime);
+            }
+            return overflow.add(timer);
+        }
+
+        private void advance(long nowMs, List<Timer<T>> fired) {
+            while (currentTime + tickMs <= nowMs) {
+                currentTime += tickMs;
+                int index = (int) ((currentTime / tickMs) % wheelSize);
+                if (bucketExpiration[index] == currentTime) {
+                    fired.addAll(buckets[index]);
+                    buckets[index].clear();
+                    bucketExpiration[index] = -1L;
+                }
+            }
+            if (overflow != null) {
+                overflow.advance(nowMs, fired);
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.project.smartparking.booking;
+
+import com.project.smartparking.repository.WaitlistEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * First-come, first-served waitlists for full parking lots.
+ * Each lot keeps its waiting entries in memory in arrival order (the waitlist_entry table is the durable copy).
+ * When a space is freed it is released and reserved for the first waiter whose window fits in one step,
+ * so waiters get a single hand-off instead of retrying bookings against a full lot.
+ */
+@Component
+public class Waitlist {
+
+    private static final Logger log = LoggerFactory.getLogger(Waitlist.class);
+
+    @Autowired
+    private WaitlistEntryRepository waitlistEntryRepository;
+
+    @Autowired
+    private SlotInventory slotInventory;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final ConcurrentHashMap<Long, List<Waiter>> queues = new ConcurrentHashMap<>();
+
+    /**
+     * Rebuild the queues from the waiting entries in the database
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        for (WaitlistEntry entry : waitlistEntryRepository.findByStatusAndEndTimeAfterOrderByIdAsc("WAITING", LocalDateTime.now())) {
+            enqueue(entry.getParkingLotId(), entry.getId(), new BookingWindow(entry.getStartTime(), entry.getEndTime()));
+        }
+    }
+
+    public void enqueue(Long parkingLotId, Long entryId, BookingWindow window) {
+        List<Waiter> queue = queues.computeIfAbsent(parkingLotId, id -> new ArrayList<>());
+        synchronized (queue) {
+            queue.add(new Waiter(entryId, window));
+        }
+    }
+
+    public void remove(Long parkingLotId, Long entryId) {
+        List<Waiter> queue = queues.get(parkingLotId);
+        if (queue == null) {
+            return;
+        }
+        synchronized (queue) {
+            queue.removeIf(waiter -> waiter.entryId.equals(entryId));
+        }
+    }
+
+    /**
+     * 1-based place of an entry in its lot's queue, or 0 if it is not queued
+     */
+    public int position(Long parkingLotId, Long entryId) {
+        List<Waiter> queue = queues.get(parkingLotId);
+        if (queue == null) {
+            return 0;
+        }
+        synchronized (queue) {
+            for (int i = 0; i < queue.size(); i++) {
+                if (queue.get(i).entryId.equals(entryId)) {
+                    return i + 1;
+                }
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Release the window [start, end) of a lot and hand the space to the first waiter it fits.
+     * A null window only tries to place waiters, e.g. right after someone joins.
+     */
+    public void handOff(Long parkingLotId, LocalDateTime start, LocalDateTime end) {
+        List<Waiter> queue = queues.get(parkingLotId);
+        if (queue == null) {
+            slotInventory.release(parkingLotId, start, end);
+            return;
+        }
+
+        Waiter claimed;
+        synchronized (queue) {
+            // Waiters whose window is over can no longer be served
+            LocalDateTime now = LocalDateTime.now();
+            queue.removeIf(waiter -> !waiter.window.getEnd().isAfter(now));
+
+            List<BookingWindow> windows = queue.stream().map(waiter -> waiter.window).collect(Collectors.toList());
+            int index = slotInventory.releaseAndClaim(parkingLotId, start, end, windows);
+            if (index < 0) {
+                return;
+            }
+            claimed = queue.remove(index);
+        }
+
+        try {
+            eventPublisher.publishEvent(new WaitlistClaimedEvent(claimed.entryId, parkingLotId, claimed.window));
+        } catch (RuntimeException e) {
+            // The entry could not be booked (left the waitlist, lot closed, ...). It is already out of the
+            // in-memory queue, so record that in the database too instead of leaving it WAITING until a
+            // restart reloads it; then pass the space on.
+            log.warn("Could not fulfil waitlist entry {}: {}", claimed.entryId, e.getMessage());
+            try {
+                waitlistEntryRepository.markFailed(claimed.entryId);
+            } catch (RuntimeException markError) {
+                log.error("Could not mark waitlist entry {} as failed", claimed.entryId, markError);
+            }
+            handOff(parkingLotId, claimed.window.getStart(), claimed.window.getEnd());
+        }
+    }
+
+    private static final class Waiter {
+        private final Long entryId;
+        private final BookingWindow window;
+
+        private Waiter(Long entryId, BookingWindow window) {
+            this.entryId = entryId;
+            this.window = window;
+        }
+    }
+}
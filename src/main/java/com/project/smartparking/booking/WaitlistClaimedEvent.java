@@ -0,0 +1,24 @@
+package com.project.smartparking.booking;
+
+/**
+ * Published by {@link Waitlist} when a freed space has been reserved for a waitlist entry;
+ * BookingService turns the entry into a booking
+ */
+public class WaitlistClaimedEvent {
+
+    private final Long entryId;
+    private final Long parkingLotId;
+    private final BookingWindow window;
+
+    public WaitlistClaimedEvent(Long entryId, Long parkingLotId, BookingWindow window) {
+        this.entryId = entryId;
+        this.parkingLotId = parkingLotId;
+        this.window = window;
+    }
+
+    public Long getEntryId() { return entryId; }
+
+    public Long getParkingLotId() { return parkingLotId; }
+
+    public BookingWindow getWindow() { return window; }
+}
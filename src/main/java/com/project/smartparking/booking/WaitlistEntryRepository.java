@@ -0,0 +1,39 @@
+package com.project.smartparking.booking;
+
+import com.project.smartparking.repository.WaitlistEntry;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+
+    List<WaitlistEntry> findByStatusAndEndTimeAfterOrderByIdAsc(String status, LocalDateTime now);
+
+    List<WaitlistEntry> findByUserIdOrderByIdDesc(Long userId);
+
+    /**
+     * Lock an entry so leaving the waitlist cannot interleave with its fulfilment
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM WaitlistEntry w WHERE w.id = :id")
+    Optional<WaitlistEntry> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Take a waiting entry whose hand-off could not be booked out of the queue for good.
+     * Entries that were cancelled or fulfilled in the meantime are left as they are.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE WaitlistEntry w SET w.status = 'FAILED' WHERE w.id = :id AND w.status = 'WAITING'")
+    int markFailed(@Param("id") Long id);
+}
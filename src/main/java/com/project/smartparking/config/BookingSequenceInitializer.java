@@ -0,0 +1,55 @@
+package com.project.smartparking.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Moves the booking id sequence past the ids already in the booking table.
+ * Booking ids used to come from an IDENTITY column; on MySQL the pooled booking_seq generator is a
+ * table that ddl-auto creates starting at 1, so on an existing database its first ids would collide
+ * with existing bookings. Runs before the web server accepts requests and is a no-op once the
+ * sequence is ahead, so it is safe on every startup and on several instances at once.
+ */
+@Component
+public class BookingSequenceInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingSequenceInitializer.class);
+
+    // Must match the allocationSize of the booking_seq generator on Booking
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Not used directly; makes sure Hibernate has created booking_seq before this runs
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    void advanceSequence() {
+        String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        String product = database == null ? "" : database.toLowerCase(Locale.ROOT);
+        if (!product.contains("mysql") && !product.contains("mariadb")) {
+            // Real sequences elsewhere; only the MySQL table emulation starts from scratch
+            return;
+        }
+
+        // The pooled optimizer hands out ids from next_val - ALLOCATION_SIZE + 1 upwards
+        int updated = jdbcTemplate.update(
+                "UPDATE booking_seq SET next_val = (SELECT COALESCE(MAX(id), 0) FROM booking) + ? " +
+                "WHERE next_val < (SELECT COALESCE(MAX(id), 0) FROM booking) + ?",
+                ALLOCATION_SIZE, ALLOCATION_SIZE);
+        if (updated > 0) {
+            log.info("Advanced booking_seq past the existing booking ids");
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.project.smartparking.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Lets at most a fixed number of threads hold a database connection at once.
+ * With virtual threads thousands of requests can reach the repositories together; waiting here on a
+ * fair semaphore is cheap and first-come, first-served, whereas piling up inside the pool's own
+ * wait queue ends in connection timeouts. The permit is returned when the connection is closed.
+ * A thread that already holds a gated connection and asks for a second one (a table-backed id
+ * generator's isolated work, a REQUIRES_NEW transaction) is let through without a permit. It must
+ * not wait behind threads that are themselves waiting for its first connection to be released, so
+ * the gate should be sized below the pool to leave connections for these nested acquisitions.
+ */
+public class ConnectionGateDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final Duration acquireTimeout;
+
+    // Threads holding a gated connection; each holds at most one, as further ones bypass the gate
+    private final Set<Thread> holders = ConcurrentHashMap.newKeySet();
+
+    public ConnectionGateDataSource(DataSource targetDataSource, int maxConcurrency, Duration acquireTimeout) {
+        super(targetDataSource);
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (holders.contains(Thread.currentThread())) {
+            return super.getConnection();
+        }
+        acquire();
+        try {
+            return gated(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            release(Thread.currentThread());
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (holders.contains(Thread.currentThread())) {
+            return super.getConnection(username, password);
+        }
+        acquire();
+        try {
+            return gated(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            release(Thread.currentThread());
+            throw e;
+        }
+    }
+
+    /**
+     * Threads currently waiting for a permit
+     */
+    public int getWaitingThreads() {
+        return permits.getQueueLength();
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(
+                        "Timed out after " + acquireTimeout.toMillis() + "ms waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+        }
+        holders.add(Thread.currentThread());
+    }
+
+    private void release(Thread owner) {
+        holders.remove(owner);
+        permits.release();
+    }
+
+    // Hands the permit back exactly once, however often close() is called
+    private Connection gated(Connection connection) {
+        // The connection may be closed on another thread than the one that opened it
+        Thread owner = Thread.currentThread();
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+                        try {
+                            connection.close();
+                        } finally {
+                            if (released.compareAndSet(false, true)) {
+                                release(owner);
+                            }
+                        }
+                        return null;
+                    }
+                    if ("equals".equals(method.getName()) && method.getParameterCount() == 1) {
+                        return proxy == args[0];
+                    }
+                    if ("hashCode".equals(method.getName()) && method.getParameterCount() == 0) {
+                        return System.identityHashCode(proxy);
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
@@ -0,0 +1,53 @@
+package com.project.smartparking.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Puts a {@link ConnectionGateDataSource} in front of the connection pool.
+ * Enabled with app.datasource.connection-gate.enabled, which application.properties ties to
+ * spring.threads.virtual.enabled so the gate comes with the virtual thread mode.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.connection-gate.enabled", havingValue = "true")
+public class DataSourceConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(DataSourceConfig.class);
+
+    // Static so the post-processor is registered before the DataSource bean is created
+    @Bean
+    public static BeanPostProcessor connectionGatePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource) || bean instanceof ConnectionGateDataSource) {
+                    return bean;
+                }
+
+                // One permit per pooled connection, so callers queue here instead of inside the pool,
+                // minus a few kept for threads that need a second connection while holding one
+                int poolSize = bean instanceof HikariDataSource hikari
+                        ? hikari.getMaximumPoolSize()
+                        : environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+                int reserved = environment.getProperty(
+                        "app.datasource.connection-gate.reserved-connections", Integer.class, 2);
+                int maxConcurrency = Math.max(1, poolSize - reserved);
+                Duration acquireTimeout = environment.getProperty(
+                        "app.datasource.connection-gate.acquire-timeout", Duration.class, Duration.ofSeconds(30));
+
+                log.info("Gating data source '{}' to {} concurrent connections ({} of {} kept for nested acquisitions)",
+                        beanName, maxConcurrency, poolSize - maxConcurrency, poolSize);
+                return new ConnectionGateDataSource((DataSource) bean, maxConcurrency, acquireTimeout);
+            }
+        };
+    }
+}
@@ -1,5 +1,7 @@
 package com.project.smartparking.config;
 
+import com.project.smartparking.auth.PasswordHashingRejectedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -16,6 +18,14 @@ public class GlobalExceptionHandler {
 		body.put("error", ex.getMessage());
 		return ResponseEntity.status(HttpStatus.NOT_FOUND).body(body);
 	}
+
+	// Login, register and password change when the password hashing pool is saturated
+	@ExceptionHandler(PasswordHashingRejectedException.class)
+	public ResponseEntity<String> handleHashingRejected(PasswordHashingRejectedException ex) {
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+				.header(HttpHeaders.RETRY_AFTER, "1")
+				.body(ex.getMessage());
+	}
 }
 
 
@@ -1,15 +1,67 @@
 package com.project.smartparking.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+import java.util.Arrays;
+
 @Configuration
 public class PasswordConfig {
-    
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordConfig.class);
+
+    // Spring's default cost; calibration never goes below it
+    private static final int MIN_STRENGTH = 10;
+    private static final int MAX_STRENGTH = 16;
+    private static final int SAMPLES = 5;
+
+    // Fixed cost factor; 0 calibrates it against the target latency on startup
+    @Value("${app.auth.bcrypt.strength:0}")
+    private int strength;
+
+    @Value("${app.auth.bcrypt.target-latency:PT0.25S}")
+    private Duration targetLatency;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(strength > 0 ? strength : calibrate());
+    }
+
+    /**
+     * Highest cost factor whose hash takes at most the target latency on this host.
+     * Each step doubles the work, so one timed cost is enough to extrapolate the others.
+     * Hashes made with another cost still verify, as the cost is stored in each hash.
+     */
+    private int calibrate() {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(MIN_STRENGTH);
+        encoder.encode("calibration"); // warm-up
+        long[] nanos = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration");
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        double millis = nanos[SAMPLES / 2] / 1_000_000.0;
+
+        int chosen = MIN_STRENGTH;
+        double chosenMillis = millis;
+        while (chosen < MAX_STRENGTH && chosenMillis * 2 <= targetLatency.toMillis()) {
+            chosen++;
+            chosenMillis *= 2;
+        }
+
+        log.info("BCrypt cost {}: {} ms per hash, {} hashes/sec per core; using cost {} "
+                        + "(~{} ms, ~{} hashes/sec per core, {} cores) for a {} ms target",
+                MIN_STRENGTH, Math.round(millis), Math.round(1000 / millis),
+                chosen, Math.round(chosenMillis), Math.round(1000 / chosenMillis),
+                Runtime.getRuntime().availableProcessors(), targetLatency.toMillis());
+        return chosen;
     }
-}
\ No newline at end of file
+}
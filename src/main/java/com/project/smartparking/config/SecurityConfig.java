@@ -1,8 +1,10 @@
 package com.project.smartparking.config;
 
 import com.project.smartparking.auth.JwtAuthenticationFilter;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -16,6 +18,7 @@ import java.util.List;
 
 @Configuration
 @EnableWebSecurity
+@EnableMethodSecurity
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
@@ -38,11 +41,27 @@ public class SecurityConfig {
             
             // 4. Define authorization rules
             .authorizeHttpRequests(auth -> auth
-                .requestMatchers("/auth/**", "/health", "/actuator/**").permitAll() // Allow public endpoints
+                .requestMatchers("/auth/**", "/health", "/actuator/health/**").permitAll() // Allow public endpoints
+                .requestMatchers("/actuator/**").hasRole("ADMIN") // Metrics are for operators only
                 .anyRequest().authenticated() // All other requests must be authenticated
             )
             
-            // 5. Add JWT filter before UsernamePasswordAuthenticationFilter
+            // 5. Answer requests without a valid token with 401 instead of 403,
+            //    and @PreAuthorize rejections that reach the filter chain with a plain 403
+            .exceptionHandling(exceptions -> exceptions
+                .authenticationEntryPoint((request, response, authException) -> {
+                    response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                    response.setContentType("text/plain;charset=UTF-8");
+                    response.getWriter().write("Invalid or expired token");
+                })
+                .accessDeniedHandler((request, response, accessDeniedException) -> {
+                    response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+                    response.setContentType("text/plain;charset=UTF-8");
+                    response.getWriter().write("Access denied: Admin privileges required");
+                })
+            )
+            
+            // 6. Add JWT filter before UsernamePasswordAuthenticationFilter
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
             
         return http.build();
@@ -0,0 +1,210 @@
+package com.project.smartparking.parkinglot;
+
+import com.project.smartparking.booking.SlotInventory;
+import com.project.smartparking.repository.ParkingSlot;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Pushes parking lot availability changes to Server-Sent Events subscribers.
+ * Changes are only marked per lot when their transaction commits; a periodic flush then reads each
+ * changed lot once and sends one event per lot to every subscriber, so a burst of bookings on a lot
+ * within the coalescing window produces a single event.
+ * Events are written on a dedicated sender thread, one write per subscriber in parallel, and a subscriber
+ * that cannot take them within the send timeout is dropped, so a slow client never holds up the
+ * scheduler or the other subscribers.
+ */
+@Component
+public class AvailabilityBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(AvailabilityBroadcaster.class);
+
+    private static final long HEARTBEAT_INTERVAL_MS = 15_000;
+
+    @Autowired
+    private ParkingLotRepository parkingLotRepository;
+
+    @Autowired
+    private SlotInventory slotInventory;
+
+    @Autowired
+    private ParkingLotCatalog parkingLotCatalog;
+
+    @Value("${app.parking-lots.stream.timeout:PT30M}")
+    private Duration emitterTimeout;
+
+    @Value("${app.parking-lots.stream.send-timeout:PT5S}")
+    private Duration sendTimeout;
+
+    // Sends one flush at a time, so every subscriber gets events in order
+    private ExecutorService sender;
+
+    // One blocking write per subscriber, so they cannot delay each other
+    private ExecutorService writers;
+
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+    private final Set<Long> changedLots = ConcurrentHashMap.newKeySet();
+
+    private volatile long lastSentAt = System.currentTimeMillis();
+
+    @PostConstruct
+    void start() {
+        sender = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "availability-sse");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writers = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @PreDestroy
+    void stop() {
+        sender.shutdownNow();
+        writers.shutdownNow();
+    }
+
+    /**
+     * Register a subscriber and send it the current state of every lot from the catalog snapshot
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(emitterTimeout.toMillis());
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+
+        // Registered before the snapshot is read, so no change between the two is missed
+        emitters.add(emitter);
+        // The catalog rebuilds a stale snapshot on read, so this only queries the database after a change
+        List<ParkingLotDto.AvailabilityDelta> snapshot = parkingLotCatalog.snapshot().getLots().stream()
+                .map(lot -> new ParkingLotDto.AvailabilityDelta(lot.getId(), lot.getBookedSlots(),
+                        lot.getAvailableSlots(), lot.getIsOpen(), false))
+                .collect(Collectors.toList());
+        try {
+            emitter.send(SseEmitter.event().name("snapshot").data(snapshot, MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            emitters.remove(emitter);
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    // Runs after commit, or right away when there is no transaction
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onParkingLotChanged(ParkingLotChangedEvent event) {
+        changedLots.add(event.getParkingLotId());
+    }
+
+    /**
+     * Send one coalesced event per changed lot
+     */
+    @Scheduled(fixedDelayString = "${app.parking-lots.stream.coalesce-ms:500}")
+    public void flush() {
+        if (emitters.isEmpty()) {
+            changedLots.clear();
+            return;
+        }
+
+        Set<Long> lotIds = new HashSet<>();
+        for (Long lotId : changedLots) {
+            if (changedLots.remove(lotId)) {
+                lotIds.add(lotId);
+            }
+        }
+
+        if (lotIds.isEmpty()) {
+            if (System.currentTimeMillis() - lastSentAt >= HEARTBEAT_INTERVAL_MS) {
+                // Keeps idle connections open through proxies
+                broadcast(List.of(SseEmitter.event().comment("heartbeat").build()));
+            }
+            return;
+        }
+
+        Map<Long, ParkingSlot> lots = parkingLotRepository.findAllById(lotIds).stream()
+                .collect(Collectors.toMap(ParkingSlot::getId, Function.identity()));
+        List<Set<ResponseBodyEmitter.DataWithMediaType>> events = new ArrayList<>(lotIds.size());
+        for (Long lotId : lotIds) {
+            ParkingSlot lot = lots.get(lotId);
+            ParkingLotDto.AvailabilityDelta delta = lot != null ? toDelta(lot) : ParkingLotDto.AvailabilityDelta.deleted(lotId);
+            // Built once: the builder appends its terminator on every build()
+            events.add(SseEmitter.event().name("availability").data(delta, MediaType.APPLICATION_JSON).build());
+        }
+        broadcast(events);
+    }
+
+    // Hands the events to the sender thread, so the scheduler thread never blocks on a client
+    private void broadcast(List<Set<ResponseBodyEmitter.DataWithMediaType>> events) {
+        lastSentAt = System.currentTimeMillis();
+        sender.execute(() -> send(events));
+    }
+
+    private void send(List<Set<ResponseBodyEmitter.DataWithMediaType>> events) {
+        List<SseEmitter> targets = List.copyOf(emitters);
+        List<Future<?>> writes = new ArrayList<>(targets.size());
+        for (SseEmitter emitter : targets) {
+            writes.add(writers.submit(() -> {
+                for (Set<ResponseBodyEmitter.DataWithMediaType> event : events) {
+                    emitter.send(event);
+                }
+                return null;
+            }));
+        }
+
+        long deadline = System.nanoTime() + sendTimeout.toNanos();
+        List<SseEmitter> failed = new ArrayList<>();
+        for (int i = 0; i < targets.size(); i++) {
+            Future<?> write = writes.get(i);
+            try {
+                write.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                // Too slow to keep up; close it so the client reconnects and gets a fresh snapshot
+                write.cancel(true);
+                targets.get(i).complete();
+                failed.add(targets.get(i));
+            } catch (ExecutionException e) {
+                failed.add(targets.get(i));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        if (!failed.isEmpty()) {
+            log.debug("Dropping {} disconnected or slow availability subscribers", failed.size());
+            emitters.removeAll(failed);
+        }
+    }
+
+    private ParkingLotDto.AvailabilityDelta toDelta(ParkingSlot lot) {
+        Integer availableNow = slotInventory.availableSlotsNow(lot.getId());
+        int availableSlots = availableNow != null ? availableNow : lot.getTotalSlots() - lot.getBookedSlots();
+        return new ParkingLotDto.AvailabilityDelta(lot.getId(), lot.getBookedSlots(), availableSlots, lot.getIsOpen(), false);
+    }
+}
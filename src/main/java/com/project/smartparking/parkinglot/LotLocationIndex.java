@@ -0,0 +1,276 @@
+package com.project.smartparking.parkinglot;
+
+import com.project.smartparking.booking.SlotInventory;
+import com.project.smartparking.repository.ParkingSlot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory grid index of parking lot locations for nearest-lot queries.
+ * Lots are bucketed into fixed-size latitude/longitude cells; a query scans rings of cells
+ * outwards from the caller's cell and stops once no unscanned cell can hold a closer lot
+ * than the k-th one already found. Rings are bounded separately in latitude and longitude, the latter
+ * by the full circle; when the radius covers more cells than there are lots (near the poles, where
+ * cells get narrow), every lot is checked directly instead. Lots without coordinates are not indexed.
+ */
+@Component
+public class LotLocationIndex {
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    // Length of one degree of latitude; a degree of longitude is this times cos(latitude)
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180.0;
+
+    @Autowired
+    private ParkingLotRepository parkingLotRepository;
+
+    @Autowired
+    private SlotInventory slotInventory;
+
+    @Value("${app.parking-lots.nearby.cell-degrees:0.01}")
+    private double cellDegrees;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, List<Point>> cells = new HashMap<>();
+
+    private final Map<Long, Point> points = new HashMap<>();
+
+    /**
+     * Load every located lot once the application has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<ParkingSlot> lots = parkingLotRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            cells.clear();
+            points.clear();
+            for (ParkingSlot lot : lots) {
+                insert(lot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Index a lot, or move it if its location, name or open flag changed
+     */
+    public void put(ParkingSlot lot) {
+        lock.writeLock().lock();
+        try {
+            delete(lot.getId());
+            insert(lot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long parkingLotId) {
+        lock.writeLock().lock();
+        try {
+            delete(parkingLotId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Up to k open lots within radiusKm of (lat, lon) that have at least minFree spaces right now, nearest first
+     */
+    public List<ParkingLotDto.NearbyParkingLotResponse> nearest(double lat, double lon, int k, int minFree, double radiusKm) {
+        PriorityQueue<Candidate> best = new PriorityQueue<>(Comparator.comparingDouble(Candidate::distanceKm).reversed());
+        int row = rowOf(lat);
+        int col = colOf(lon);
+        int latRings = latRingsFor(radiusKm);
+        int lonRings = lonRingsFor(lat, radiusKm);
+
+        lock.readLock().lock();
+        try {
+            if ((2L * latRings + 1) * (2L * lonRings + 1) > points.size()) {
+                for (Point point : points.values()) {
+                    consider(point, lat, lon, k, minFree, radiusKm, best);
+                }
+            } else {
+                for (int ring = 0; ring <= Math.max(latRings, lonRings); ring++) {
+                    // Anything in this ring or beyond is at least (ring - 1) whole cells away
+                    if (best.size() == k && best.peek().distanceKm() < minDistanceKm(lat, ring)) {
+                        break;
+                    }
+                    scanRing(ring, row, col, latRings, lonRings, lat, lon, k, minFree, radiusKm, best);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Candidate> found = new ArrayList<>(best);
+        found.sort(Comparator.comparingDouble(Candidate::distanceKm));
+        List<ParkingLotDto.NearbyParkingLotResponse> result = new ArrayList<>(found.size());
+        for (Candidate candidate : found) {
+            Point point = candidate.point();
+            result.add(new ParkingLotDto.NearbyParkingLotResponse(point.id, point.name, point.address,
+                    point.latitude, point.longitude, Math.round(candidate.distanceKm() * 1000) / 1000.0,
+                    candidate.availableSlots()));
+        }
+        return result;
+    }
+
+    // Cells first reached at this ring: whole edge rows while the ring is within latRings, edge columns within lonRings
+    private void scanRing(int ring, int row, int col, int latRings, int lonRings, double lat, double lon, int k,
+                          int minFree, double radiusKm, PriorityQueue<Candidate> best) {
+        int rowSpan = Math.min(ring, latRings);
+        int colSpan = Math.min(ring, lonRings);
+        for (int r = row - rowSpan; r <= row + rowSpan; r++) {
+            boolean edgeRow = Math.abs(r - row) == ring;
+            if (edgeRow) {
+                for (int c = col - colSpan; c <= col + colSpan; c++) {
+                    scanCell(r, c, lat, lon, k, minFree, radiusKm, best);
+                }
+            } else if (ring <= lonRings) {
+                scanCell(r, col - ring, lat, lon, k, minFree, radiusKm, best);
+                if (ring > 0) {
+                    scanCell(r, col + ring, lat, lon, k, minFree, radiusKm, best);
+                }
+            }
+        }
+    }
+
+    private void scanCell(int r, int c, double lat, double lon, int k, int minFree, double radiusKm,
+                          PriorityQueue<Candidate> best) {
+        List<Point> cell = cells.get(key(r, wrapCol(c)));
+        if (cell != null) {
+            for (Point point : cell) {
+                consider(point, lat, lon, k, minFree, radiusKm, best);
+            }
+        }
+    }
+
+    private void consider(Point point, double lat, double lon, int k, int minFree, double radiusKm,
+                          PriorityQueue<Candidate> best) {
+        if (!point.open) {
+            return;
+        }
+        double distance = haversineKm(lat, lon, point.latitude, point.longitude);
+        if (distance > radiusKm || (best.size() == k && distance >= best.peek().distanceKm())) {
+            return;
+        }
+        // Checked last: it takes the lot's monitor in the inventory
+        Integer available = slotInventory.availableSlotsNow(point.id);
+        if (available == null || available < minFree) {
+            return;
+        }
+        best.add(new Candidate(point, distance, available));
+        if (best.size() > k) {
+            best.poll();
+        }
+    }
+
+    // Caller holds the write lock
+    private void insert(ParkingSlot lot) {
+        if (lot.getLatitude() == null || lot.getLongitude() == null) {
+            return;
+        }
+        Point point = new Point(lot.getId(), lot.getName(), lot.getAddress(), lot.getLatitude(), lot.getLongitude(),
+                Boolean.TRUE.equals(lot.getIsOpen()));
+        points.put(point.id, point);
+        cells.computeIfAbsent(key(rowOf(point.latitude), colOf(point.longitude)), key -> new ArrayList<>()).add(point);
+    }
+
+    // Caller holds the write lock
+    private void delete(Long parkingLotId) {
+        Point point = points.remove(parkingLotId);
+        if (point == null) {
+            return;
+        }
+        long key = key(rowOf(point.latitude), colOf(point.longitude));
+        List<Point> cell = cells.get(key);
+        cell.remove(point);
+        if (cell.isEmpty()) {
+            cells.remove(key);
+        }
+    }
+
+    private int latRingsFor(double radiusKm) {
+        return (int) Math.ceil(radiusKm / (cellDegrees * KM_PER_DEGREE)) + 1;
+    }
+
+    // Cells needed to cover the radius east and west, at most half the circle each way so no column is visited twice
+    private int lonRingsFor(double lat, double radiusKm) {
+        double rings = Math.ceil(radiusKm / cellWidthKm(lat)) + 1;
+        return (int) Math.min(rings, (columns() - 1) / 2);
+    }
+
+    private int columns() {
+        return (int) Math.ceil(360 / cellDegrees);
+    }
+
+    // Columns past the antimeridian continue from the other side
+    private int wrapCol(int c) {
+        int first = (int) Math.floor(-180 / cellDegrees);
+        return first + Math.floorMod(c - first, columns());
+    }
+
+    private double minDistanceKm(double lat, int ring) {
+        return (ring - 1) * cellWidthKm(lat);
+    }
+
+    // Lower bound on a cell's east-west width near this latitude, taken one degree towards the pole
+    private double cellWidthKm(double lat) {
+        double cosLat = Math.cos(Math.toRadians(Math.min(Math.abs(lat) + 1, 89)));
+        return cellDegrees * KM_PER_DEGREE * Math.max(cosLat, 0.01);
+    }
+
+    private int rowOf(double lat) {
+        return (int) Math.floor(lat / cellDegrees);
+    }
+
+    private int colOf(double lon) {
+        return wrapCol((int) Math.floor(lon / cellDegrees));
+    }
+
+    private static long key(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+
+    private static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static final class Point {
+        private final Long id;
+        private final String name;
+        private final String address;
+        private final double latitude;
+        private final double longitude;
+        private final boolean open;
+
+        private Point(Long id, String name, String address, double latitude, double longitude, boolean open) {
+            this.id = id;
+            this.name = name;
+            this.address = address;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.open = open;
+        }
+    }
+
+    private record Candidate(Point point, double distanceKm, int availableSlots) {
+    }
+}
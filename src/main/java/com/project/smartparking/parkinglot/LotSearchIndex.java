@@ -0,0 +1,340 @@
+package com.project.smartparking.parkinglot;
+
+import com.project.smartparking.repository.ParkingSlot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory n-gram index over parking lot names and addresses for typeahead search.
+ * Every word is indexed by its trigrams, padded with a space on both sides, plus its first
+ * letter, so a query word matches words that start with it or contain it with a typo or two.
+ * The last query word is treated as a prefix, since it is usually still being typed.
+ * Only the rarest grams of a query are scanned for candidates; every other lot cannot reach
+ * the match threshold, so common grams such as " st" never have to be walked.
+ */
+@Component
+public class LotSearchIndex {
+
+    private static final double NAME_WEIGHT = 2.0;
+    private static final double PREFIX_BONUS = 1.0;
+
+    @Autowired
+    private ParkingLotRepository parkingLotRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    private final Map<Long, Document> documents = new HashMap<>();
+
+    /**
+     * Index every lot once the application has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<ParkingSlot> lots = parkingLotRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            for (ParkingSlot lot : lots) {
+                insert(lot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Index a lot, replacing any earlier entry for it
+     */
+    public void put(ParkingSlot lot) {
+        lock.writeLock().lock();
+        try {
+            delete(lot.getId());
+            insert(lot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long parkingLotId) {
+        lock.writeLock().lock();
+        try {
+            delete(parkingLotId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Up to limit lots matching every word of the query, best match first.
+     * Name matches outrank address matches, and words starting with a query word outrank words containing it.
+     */
+    public List<ParkingLotDto.ParkingLotSearchResult> search(String query, int limit) {
+        List<String> words = words(query);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+
+        PriorityQueue<Hit> best = new PriorityQueue<>(Hit.RANKING.reversed());
+        lock.readLock().lock();
+        try {
+            List<Set<String>> queryGrams = new ArrayList<>(words.size());
+            for (int i = 0; i < words.size(); i++) {
+                queryGrams.add(queryGrams(words.get(i), i == words.size() - 1));
+            }
+
+            // Candidates come from the most selective word only; the others are checked per candidate
+            int pivot = 0;
+            long pivotCost = Long.MAX_VALUE;
+            for (int i = 0; i < words.size(); i++) {
+                long cost = candidateCost(queryGrams.get(i));
+                if (cost < pivotCost) {
+                    pivot = i;
+                    pivotCost = cost;
+                }
+            }
+
+            for (Long lotId : candidates(queryGrams.get(pivot))) {
+                Document document = documents.get(lotId);
+                double score = score(document, words, queryGrams);
+                if (score < 0) {
+                    continue;
+                }
+                best.add(new Hit(document, score));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(Hit.RANKING);
+        List<ParkingLotDto.ParkingLotSearchResult> result = new ArrayList<>(hits.size());
+        for (Hit hit : hits) {
+            Document document = hit.document();
+            result.add(new ParkingLotDto.ParkingLotSearchResult(document.id, document.name, document.address,
+                    document.open, Math.round(hit.score() * 1000) / 1000.0));
+        }
+        return result;
+    }
+
+    // Sum of per-word scores, or -1 if some query word matches neither field closely enough
+    private double score(Document document, List<String> words, List<Set<String>> queryGrams) {
+        double total = 0;
+        for (int i = 0; i < words.size(); i++) {
+            Set<String> grams = queryGrams.get(i);
+            int required = required(grams.size());
+            int nameMatches = matches(document.nameGrams, grams);
+            int addressMatches = matches(document.addressGrams, grams);
+            if (nameMatches < required && addressMatches < required) {
+                return -1;
+            }
+
+            String word = words.get(i);
+            double nameScore = nameMatches < required ? 0
+                    : NAME_WEIGHT * ((double) nameMatches / grams.size() + (startsAnyWord(document.nameWords, word) ? PREFIX_BONUS : 0));
+            double addressScore = addressMatches < required ? 0
+                    : (double) addressMatches / grams.size() + (startsAnyWord(document.addressWords, word) ? PREFIX_BONUS : 0);
+            total += Math.max(nameScore, addressScore);
+        }
+        return total;
+    }
+
+    /*
+     * Of the grams present in the index, a lot missing all of the (present - required + 1) rarest
+     * can match at most required - 1, so the union of those postings holds every lot that can pass
+     */
+    private Set<Long> candidates(Set<String> grams) {
+        List<Postings> lists = presentPostings(grams);
+        int scan = lists.size() - required(grams.size()) + 1;
+        Set<Long> candidates = new HashSet<>();
+        for (int i = 0; i < scan; i++) {
+            Postings list = lists.get(i);
+            for (int j = 0; j < list.size; j++) {
+                candidates.add(list.ids[j]);
+            }
+        }
+        return candidates;
+    }
+
+    private long candidateCost(Set<String> grams) {
+        List<Postings> lists = presentPostings(grams);
+        int scan = lists.size() - required(grams.size()) + 1;
+        long cost = 0;
+        for (int i = 0; i < scan; i++) {
+            cost += lists.get(i).size;
+        }
+        return cost;
+    }
+
+    // Postings of the grams present in the index, rarest first
+    private List<Postings> presentPostings(Set<String> grams) {
+        List<Postings> lists = new ArrayList<>(grams.size());
+        for (String gram : grams) {
+            Postings list = postings.get(gram);
+            if (list != null) {
+                lists.add(list);
+            }
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        return lists;
+    }
+
+    // Grams a lot must share with a query word: all of them for short words, about half for longer ones
+    private static int required(int grams) {
+        return grams <= 3 ? grams : (grams + 1) / 2;
+    }
+
+    private static int matches(Set<String> documentGrams, Set<String> queryGrams) {
+        int matches = 0;
+        for (String gram : queryGrams) {
+            if (documentGrams.contains(gram)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    private static boolean startsAnyWord(List<String> documentWords, String word) {
+        for (String documentWord : documentWords) {
+            if (documentWord.startsWith(word)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Caller holds the write lock
+    private void insert(ParkingSlot lot) {
+        Document document = new Document(lot);
+        documents.put(document.id, document);
+        Set<String> grams = new HashSet<>(document.nameGrams);
+        grams.addAll(document.addressGrams);
+        for (String gram : grams) {
+            postings.computeIfAbsent(gram, key -> new Postings()).add(document.id);
+        }
+    }
+
+    // Caller holds the write lock
+    private void delete(Long parkingLotId) {
+        Document document = documents.remove(parkingLotId);
+        if (document == null) {
+            return;
+        }
+        Set<String> grams = new HashSet<>(document.nameGrams);
+        grams.addAll(document.addressGrams);
+        for (String gram : grams) {
+            Postings list = postings.get(gram);
+            list.remove(parkingLotId);
+            if (list.size == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private static List<String> words(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        String normalized = text.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+        return normalized.isEmpty() ? List.of() : Arrays.asList(normalized.split(" "));
+    }
+
+    private static Set<String> documentGrams(List<String> words) {
+        Set<String> grams = new HashSet<>();
+        for (String word : words) {
+            grams.add(" " + word.charAt(0));
+            addTrigrams(grams, " " + word + " ");
+        }
+        return grams;
+    }
+
+    // A prefix word is left open at the end, so "cent" matches "central" but not on its trailing gram
+    private static Set<String> queryGrams(String word, boolean prefix) {
+        Set<String> grams = new LinkedHashSet<>();
+        if (word.length() == 1) {
+            grams.add(" " + word);
+            if (!prefix) {
+                grams.add(" " + word + " ");
+            }
+            return grams;
+        }
+        addTrigrams(grams, prefix ? " " + word : " " + word + " ");
+        return grams;
+    }
+
+    private static void addTrigrams(Set<String> grams, String padded) {
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+    }
+
+    private static final class Document {
+        private final Long id;
+        private final String name;
+        private final String address;
+        private final boolean open;
+        private final List<String> nameWords;
+        private final List<String> addressWords;
+        private final Set<String> nameGrams;
+        private final Set<String> addressGrams;
+
+        private Document(ParkingSlot lot) {
+            this.id = lot.getId();
+            this.name = lot.getName();
+            this.address = lot.getAddress();
+            this.open = Boolean.TRUE.equals(lot.getIsOpen());
+            this.nameWords = words(lot.getName());
+            this.addressWords = words(lot.getAddress());
+            this.nameGrams = documentGrams(nameWords);
+            this.addressGrams = documentGrams(addressWords);
+        }
+    }
+
+    // Unordered list of lot ids; removal swaps in the last element
+    private static final class Postings {
+        private long[] ids = new long[4];
+        private int size;
+
+        private void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        private void remove(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    ids[i] = ids[--size];
+                    return;
+                }
+            }
+        }
+    }
+
+    private record Hit(Document document, double score) {
+        private static final Comparator<Hit> RANKING = Comparator.comparingDouble(Hit::score).reversed()
+                .thenComparing(hit -> hit.document().name.length())
+                .thenComparing(hit -> hit.document().id);
+    }
+}
@@ -0,0 +1,262 @@
+package com.project.smartparking.parkinglot;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Immutable, versioned snapshot of the parking lot list served by GET /api/parking-lots.
+ * The snapshot holds the JSON already serialized and gzipped plus an ETag, so a request costs
+ * no database access or serialization; a new snapshot is built on the first read after a lot changes.
+ * Available slots also depend on the clock, so a snapshot is rechecked once it is older than max-age,
+ * keeping its version when the content turns out to be the same.
+ * Each snapshot also keeps the lots pre-sorted in every supported order, so filtered and
+ * keyset-paginated listings are served from memory as well.
+ */
+@Component
+public class ParkingLotCatalog {
+
+    @Autowired
+    private ParkingLotService parkingLotService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.parking-lots.catalog.max-age:PT1M}")
+    private Duration maxAge;
+
+    // Part of every ETag, so versions from an earlier run or another instance never match
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private volatile Snapshot current;
+
+    private volatile boolean stale = true;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onParkingLotChanged(ParkingLotChangedEvent event) {
+        stale = true;
+    }
+
+    public Snapshot snapshot() {
+        Snapshot snapshot = current;
+        if (snapshot != null && !stale && !snapshot.isOlderThan(maxAge)) {
+            return snapshot;
+        }
+        synchronized (this) {
+            snapshot = current;
+            if (snapshot != null && !stale && !snapshot.isOlderThan(maxAge)) {
+                return snapshot;
+            }
+            // Cleared before reading, so a change committed during the rebuild marks it stale again
+            stale = false;
+            current = build(snapshot);
+            return current;
+        }
+    }
+
+    /**
+     * One page of lots in the given order, optionally only open lots and lots with at least minAvailable free spaces
+     */
+    public ParkingLotDto.ParkingLotPage query(Boolean isOpen, Integer minAvailable, String sort, String cursor, Integer limit) {
+        Order order = Order.of(sort);
+        int pageSize = ParkingLotDto.ParkingLotPage.normalizeLimit(limit);
+        ParkingLotCursor after = cursor == null ? null : ParkingLotCursor.decode(cursor);
+
+        List<ParkingLotDto.ParkingLotResponse> sorted = snapshot().sorted(order);
+        List<ParkingLotDto.ParkingLotResponse> items = new ArrayList<>(pageSize);
+        for (int i = after == null ? 0 : order.firstAfter(sorted, after); i < sorted.size(); i++) {
+            ParkingLotDto.ParkingLotResponse lot = sorted.get(i);
+            if (isOpen != null && !isOpen.equals(lot.getIsOpen())) {
+                continue;
+            }
+            if (minAvailable != null && lot.getAvailableSlots() < minAvailable) {
+                continue;
+            }
+            if (items.size() == pageSize) {
+                ParkingLotDto.ParkingLotResponse last = items.get(pageSize - 1);
+                return new ParkingLotDto.ParkingLotPage(items, order.cursorOf(last).encode());
+            }
+            items.add(lot);
+        }
+        return new ParkingLotDto.ParkingLotPage(items, null);
+    }
+
+    private Snapshot build(Snapshot previous) {
+        List<ParkingLotDto.ParkingLotResponse> lots = parkingLotService.getAllParkingLots();
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(lots);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize parking lots", e);
+        }
+
+        if (previous != null && Arrays.equals(previous.json, json)) {
+            return new Snapshot(previous.version, previous.etag, previous.lots, previous.json, previous.gzip, previous.orders);
+        }
+        long version = previous == null ? 1 : previous.version + 1;
+        Map<Order, List<ParkingLotDto.ParkingLotResponse>> orders = new EnumMap<>(Order.class);
+        for (Order order : Order.values()) {
+            orders.put(order, lots.stream().sorted(order.comparator).toList());
+        }
+        return new Snapshot(version, "\"" + epoch + "-" + version + "\"", List.copyOf(lots), json, gzip(json), orders);
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    public static final class Snapshot {
+        private final long version;
+        private final String etag;
+        private final List<ParkingLotDto.ParkingLotResponse> lots;
+        private final byte[] json;
+        private final byte[] gzip;
+        private final Map<Order, List<ParkingLotDto.ParkingLotResponse>> orders;
+        private final long builtAt = System.nanoTime();
+
+        private Snapshot(long version, String etag, List<ParkingLotDto.ParkingLotResponse> lots, byte[] json, byte[] gzip,
+                         Map<Order, List<ParkingLotDto.ParkingLotResponse>> orders) {
+            this.version = version;
+            this.etag = etag;
+            this.lots = lots;
+            this.json = json;
+            this.gzip = gzip;
+            this.orders = orders;
+        }
+
+        public long getVersion() { return version; }
+
+        public String getEtag() { return etag; }
+
+        public List<ParkingLotDto.ParkingLotResponse> getLots() { return lots; }
+
+        // Shared arrays; callers must not modify them
+        public byte[] getJson() { return json; }
+
+        public byte[] getGzip() { return gzip; }
+
+        private List<ParkingLotDto.ParkingLotResponse> sorted(Order order) {
+            return orders.get(order);
+        }
+
+        private boolean isOlderThan(Duration age) {
+            return System.nanoTime() - builtAt > age.toNanos();
+        }
+    }
+
+    /**
+     * Supported listing orders; ties are broken by id so every order is total and cursors stay stable
+     */
+    private enum Order {
+        ID("id", Comparator.comparing(ParkingLotDto.ParkingLotResponse::getId)) {
+            @Override
+            String keyOf(ParkingLotDto.ParkingLotResponse lot) {
+                return String.valueOf(lot.getId());
+            }
+
+            @Override
+            int compareKey(ParkingLotDto.ParkingLotResponse lot, String key) {
+                return 0;
+            }
+        },
+        NAME("name", Comparator.comparing(ParkingLotDto.ParkingLotResponse::getName)
+                .thenComparing(ParkingLotDto.ParkingLotResponse::getId)) {
+            @Override
+            String keyOf(ParkingLotDto.ParkingLotResponse lot) {
+                return lot.getName();
+            }
+
+            @Override
+            int compareKey(ParkingLotDto.ParkingLotResponse lot, String key) {
+                return lot.getName().compareTo(key);
+            }
+        },
+        // Most free spaces first
+        AVAILABLE_SLOTS("availableSlots", Comparator.comparing(ParkingLotDto.ParkingLotResponse::getAvailableSlots).reversed()
+                .thenComparing(ParkingLotDto.ParkingLotResponse::getId)) {
+            @Override
+            String keyOf(ParkingLotDto.ParkingLotResponse lot) {
+                return String.valueOf(lot.getAvailableSlots());
+            }
+
+            @Override
+            int compareKey(ParkingLotDto.ParkingLotResponse lot, String key) {
+                try {
+                    return Integer.compare(Integer.parseInt(key), lot.getAvailableSlots());
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid cursor");
+                }
+            }
+        };
+
+        private final String param;
+        private final Comparator<ParkingLotDto.ParkingLotResponse> comparator;
+
+        Order(String param, Comparator<ParkingLotDto.ParkingLotResponse> comparator) {
+            this.param = param;
+            this.comparator = comparator;
+        }
+
+        abstract String keyOf(ParkingLotDto.ParkingLotResponse lot);
+
+        // Position of the lot's sort key relative to a cursor key, in this order
+        abstract int compareKey(ParkingLotDto.ParkingLotResponse lot, String key);
+
+        ParkingLotCursor cursorOf(ParkingLotDto.ParkingLotResponse lot) {
+            return new ParkingLotCursor(keyOf(lot), lot.getId());
+        }
+
+        // Index of the first lot strictly after the cursor, by binary search
+        int firstAfter(List<ParkingLotDto.ParkingLotResponse> sorted, ParkingLotCursor cursor) {
+            int low = 0;
+            int high = sorted.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                ParkingLotDto.ParkingLotResponse lot = sorted.get(mid);
+                int cmp = compareKey(lot, cursor.getKey());
+                if (cmp == 0) {
+                    cmp = Long.compare(lot.getId(), cursor.getId());
+                }
+                if (cmp <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        static Order of(String sort) {
+            if (sort == null) {
+                return ID;
+            }
+            for (Order order : values()) {
+                if (order.param.equals(sort)) {
+                    return order;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported sort '" + sort + "', use id, name or availableSlots");
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.project.smartparking.parkinglot;
+
+/**
+ * Published whenever a parking lot's bookings, capacity or open state change
+ */
+public class ParkingLotChangedEvent {
+
+    private final Long parkingLotId;
+
+    public ParkingLotChangedEvent(Long parkingLotId) {
+        this.parkingLotId = parkingLotId;
+    }
+
+    public Long getParkingLotId() { return parkingLotId; }
+}
@@ -1,14 +1,21 @@
 package com.project.smartparking.parkinglot;
 
-import com.project.smartparking.auth.JwtService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.Map;
 
 @RestController
@@ -20,40 +27,57 @@ public class ParkingLotController {
     private ParkingLotService parkingLotService;
 
     @Autowired
-    private JwtService jwtService;
+    private AvailabilityBroadcaster availabilityBroadcaster;
 
+    @Autowired
+    private ParkingLotCatalog parkingLotCatalog;
+
+    /**
+     * Get all parking lots
+     * Served from a pre-serialized snapshot; clients that send the last ETag get 304 Not Modified.
+     * With any filter, sort or paging parameter, one page of matching lots is returned instead.
+     */
     @GetMapping
-    public ResponseEntity<?> getAllParkingLots(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getAllParkingLots(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestParam(required = false) Boolean isOpen,
+            @RequestParam(required = false) Integer minAvailable,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         try {
-            // Verify token
-            String email = extractEmailFromToken(authHeader);
-            if (email == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body("Invalid or expired token");
+            if (isOpen != null || minAvailable != null || sort != null || cursor != null || limit != null) {
+                return ResponseEntity.ok(parkingLotCatalog.query(isOpen, minAvailable, sort, cursor, limit));
             }
 
-            List<ParkingLotDto.ParkingLotResponse> parkingLots = parkingLotService.getAllParkingLots();
-            return ResponseEntity.ok(parkingLots);
+            ParkingLotCatalog.Snapshot snapshot = parkingLotCatalog.snapshot();
+            if (ifNoneMatch != null && ifNoneMatch.contains(snapshot.getEtag())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(snapshot.getEtag()).build();
+            }
+
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .eTag(snapshot.getEtag())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.getGzip());
+            }
+            return response.body(snapshot.getJson());
 
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body("Invalid or expired token");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Request failed: " + e.getMessage());
         }
     }
 
     @PostMapping
     public ResponseEntity<?> createParkingLot(
-            @RequestHeader("Authorization") String authHeader,
             @Valid @RequestBody ParkingLotDto.CreateParkingLotRequest request) {
         try {
-            // Verify token and extract email
-            String email = extractEmailFromToken(authHeader);
-            if (email == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body("Invalid or expired token");
-            }
-
-            ParkingLotDto.ParkingLotResponse response = parkingLotService.createParkingLot(request, email);
+            ParkingLotDto.ParkingLotResponse response = parkingLotService.createParkingLot(request);
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
 
         } catch (AccessDeniedException e) {
@@ -61,49 +85,58 @@ public class ParkingLotController {
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body("Invalid or expired token");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Request failed: " + e.getMessage());
         }
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<?> updateParkingLot(
             @PathVariable Long id,
-            @RequestHeader("Authorization") String authHeader,
             @Valid @RequestBody ParkingLotDto.UpdateParkingLotRequest request) {
         try {
-            // Verify token and extract email
-            String email = extractEmailFromToken(authHeader);
-            if (email == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body("Invalid or expired token");
-            }
-
-            ParkingLotDto.ParkingLotResponse response = parkingLotService.updateParkingLot(id, request, email);
+            ParkingLotDto.ParkingLotResponse response = parkingLotService.updateParkingLot(id, request);
             return ResponseEntity.ok(response);
 
         } catch (AccessDeniedException e) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body("Invalid or expired token");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Request failed: " + e.getMessage());
         }
     }
     
+    /**
+     * Bulk-create parking lots from a CSV or NDJSON request body
+     * Only admin users can import parking lots
+     */
+    @PostMapping("/import")
+    public ResponseEntity<?> importParkingLots(
+            @RequestParam(defaultValue = ParkingLotService.EXPORT_FORMAT_CSV) String format,
+            InputStream body) {
+        try {
+            return ResponseEntity.ok(parkingLotService.importParkingLots(format.toLowerCase(), body));
+
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Could not read the upload: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Request failed: " + e.getMessage());
+        }
+    }
+
     @PostMapping("/batch-details")
     public ResponseEntity<?> getParkingLotDetailsByIds(
-            @RequestHeader("Authorization") String authHeader,
             @Valid @RequestBody ParkingLotDto.ParkingLotIdsRequest request) {
         try {
-            // Verify token
-            String email = extractEmailFromToken(authHeader);
-            if (email == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body("Invalid or expired token");
-            }
-
             Map<Long, ParkingLotDto.ParkingLotDetailsResponse> parkingLotDetails = 
                     parkingLotService.getParkingLotDetailsByIds(request.getParkingLotIds());
             return ResponseEntity.ok(parkingLotDetails);
@@ -111,26 +144,78 @@ public class ParkingLotController {
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body("Invalid or expired token");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Request failed: " + e.getMessage());
         }
     }
 
-    private String extractEmailFromToken(String authHeader) {
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            return null;
+    /**
+     * Stream availability changes as Server-Sent Events
+     * Sends a "snapshot" event with every lot, then one "availability" event per changed lot
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamAvailability() {
+        return ResponseEntity.ok(availabilityBroadcaster.subscribe());
+    }
+
+    /**
+     * Typeahead search of parking lots by part of their name or address
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchParkingLots(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(parkingLotService.search(q, limit));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Request failed: " + e.getMessage());
         }
+    }
 
-        String token = authHeader.substring(7);
-        String email = jwtService.extractUsername(token);
-        
-        // Validate token
-        if (!jwtService.validateToken(token, email)) {
-            return null;
+    /**
+     * Find the nearest open parking lots with free spaces around a point
+     */
+    @GetMapping("/nearby")
+    public ResponseEntity<?> getNearbyParkingLots(
+            @RequestParam Double lat,
+            @RequestParam Double lon,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Integer minFree,
+            @RequestParam(required = false) Double radiusKm) {
+        try {
+            return ResponseEntity.ok(parkingLotService.findNearby(lat, lon, limit, minFree, radiusKm));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Request failed: " + e.getMessage());
         }
+    }
+
+    /**
+     * Get the number of free spaces in a parking lot for a time window
+     */
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<?> getAvailability(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            return ResponseEntity.ok(parkingLotService.getAvailability(id, from, to));
 
-        return email;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Request failed: " + e.getMessage());
+        }
     }
+
     
     /**
      * Delete a parking lot by ID
@@ -138,17 +223,9 @@ public class ParkingLotController {
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteParkingLot(
-            @RequestHeader("Authorization") String authHeader,
             @PathVariable Long id) {
         try {
-            // Verify token and extract email
-            String email = extractEmailFromToken(authHeader);
-            if (email == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body("Invalid or expired token");
-            }
-
-            parkingLotService.deleteParkingLot(id, email);
+            parkingLotService.deleteParkingLot(id);
             return ResponseEntity.ok("Parking lot deleted successfully");
 
         } catch (AccessDeniedException e) {
@@ -164,22 +241,17 @@ public class ParkingLotController {
     }
     
     /**
-     * Get all bookings for a specific parking lot
+     * Get bookings for a specific parking lot, one keyset page at a time
      * Only admin users can see all bookings for a parking lot
      */
     @GetMapping("/{id}/bookings")
     public ResponseEntity<?> getBookingsByParkingLotId(
-            @RequestHeader("Authorization") String authHeader,
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         try {
-            // Verify token and extract email
-            String email = extractEmailFromToken(authHeader);
-            if (email == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body("Invalid or expired token");
-            }
-
-            return ResponseEntity.ok(parkingLotService.getBookingsByParkingLotId(id, email));
+            return ResponseEntity.ok(parkingLotService.getBookingsByParkingLotId(id, status, cursor, limit));
 
         } catch (AccessDeniedException e) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
@@ -191,31 +263,84 @@ public class ParkingLotController {
         }
     }
     
+    /**
+     * Get booking counts by status for a parking lot
+     * Only admin users can see parking lot statistics
+     */
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<?> getBookingStats(
+            @PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(parkingLotService.getBookingStats(id));
+
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error retrieving statistics: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Export every booking of a parking lot as NDJSON or CSV
+     * Rows are streamed straight to the response; only admin users can export
+     */
+    @GetMapping("/{id}/bookings/export")
+    public ResponseEntity<StreamingResponseBody> exportBookings(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = ParkingLotService.EXPORT_FORMAT_NDJSON) String format) {
+        try {
+            String exportFormat = format.toLowerCase();
+            parkingLotService.checkBookingExport(id, exportFormat);
+
+            StreamingResponseBody body = out -> parkingLotService.exportBookings(id, exportFormat, out);
+            MediaType contentType = ParkingLotService.EXPORT_FORMAT_CSV.equals(exportFormat)
+                    ? MediaType.parseMediaType("text/csv")
+                    : MediaType.APPLICATION_NDJSON;
+
+            return ResponseEntity.ok()
+                    .contentType(contentType)
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=\"parking-lot-" + id + "-bookings." + exportFormat + "\"")
+                    .body(body);
+
+        } catch (AccessDeniedException e) {
+            return streamedMessage(HttpStatus.FORBIDDEN, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return streamedMessage(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (Exception e) {
+            return streamedMessage(HttpStatus.INTERNAL_SERVER_ERROR, "Error exporting bookings: " + e.getMessage());
+        }
+    }
+
+    // Streaming endpoints must return a StreamingResponseBody, so error messages are streamed too
+    private ResponseEntity<StreamingResponseBody> streamedMessage(HttpStatus status, String message) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(out -> out.write(message.getBytes(StandardCharsets.UTF_8)));
+    }
+    
     /**
      * Update specific fields of a parking slot (totalSlots and isOpen only)
      * Only admin users can update parking slots
      */
     @PostMapping("/{id}/update")
     public ResponseEntity<?> updateParkingSlotPartial(
-            @RequestHeader("Authorization") String authHeader,
             @PathVariable Long id,
             @Valid @RequestBody ParkingLotDto.UpdateParkingSlotPartialRequest request) {
         try {
-            // Verify token and extract email
-            String email = extractEmailFromToken(authHeader);
-            if (email == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body("Invalid or expired token");
-            }
-
             ParkingLotDto.ParkingLotResponse response = 
-                    parkingLotService.updateParkingSlotPartial(id, request, email);
+                    parkingLotService.updateParkingSlotPartial(id, request);
             return ResponseEntity.ok(response);
 
         } catch (AccessDeniedException e) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error updating parking slot: " + e.getMessage());
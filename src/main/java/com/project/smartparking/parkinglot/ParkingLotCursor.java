@@ -0,0 +1,30 @@
+package com.project.smartparking.parkinglot;
+
+import com.project.smartparking.booking.CursorCodec;
+
+/**
+ * Opaque keyset cursor for parking lot listings.
+ * Points at the sort key and id of the last lot of a page; the next page starts strictly after it.
+ */
+public class ParkingLotCursor {
+
+    private final String key;
+    private final Long id;
+
+    public ParkingLotCursor(String key, Long id) {
+        this.key = key;
+        this.id = id;
+    }
+
+    public String getKey() { return key; }
+
+    public Long getId() { return id; }
+
+    public String encode() {
+        return CursorCodec.encode(key, id);
+    }
+
+    public static ParkingLotCursor decode(String cursor) {
+        return CursorCodec.decode(cursor, ParkingLotCursor::new);
+    }
+}
@@ -1,10 +1,15 @@
 package com.project.smartparking.parkinglot;
 
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 public class ParkingLotDto {
 
@@ -22,6 +27,14 @@ public class ParkingLotDto {
         @NotNull(message = "Open status is required")
         private Boolean isOpen;
 
+        @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+        @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+        private Double latitude;
+
+        @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+        @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+        private Double longitude;
+
         public String getName() { return name; }
         public void setName(String name) { this.name = name; }
 
@@ -33,6 +46,12 @@ public class ParkingLotDto {
 
         public Boolean getIsOpen() { return isOpen; }
         public void setIsOpen(Boolean isOpen) { this.isOpen = isOpen; }
+
+        public Double getLatitude() { return latitude; }
+        public void setLatitude(Double latitude) { this.latitude = latitude; }
+
+        public Double getLongitude() { return longitude; }
+        public void setLongitude(Double longitude) { this.longitude = longitude; }
     }
 
     public static class UpdateParkingLotRequest {
@@ -44,6 +63,14 @@ public class ParkingLotDto {
         
         private Boolean isOpen;
 
+        @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+        @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+        private Double latitude;
+
+        @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+        @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+        private Double longitude;
+
         public String getName() { return name; }
         public void setName(String name) { this.name = name; }
 
@@ -55,6 +82,12 @@ public class ParkingLotDto {
 
         public Boolean getIsOpen() { return isOpen; }
         public void setIsOpen(Boolean isOpen) { this.isOpen = isOpen; }
+
+        public Double getLatitude() { return latitude; }
+        public void setLatitude(Double latitude) { this.latitude = latitude; }
+
+        public Double getLongitude() { return longitude; }
+        public void setLongitude(Double longitude) { this.longitude = longitude; }
     }
 
     public static class ParkingLotResponse {
@@ -65,6 +98,8 @@ public class ParkingLotDto {
         private Integer bookedSlots;
         private Integer availableSlots;
         private Boolean isOpen;
+        private Double latitude;
+        private Double longitude;
 
         public ParkingLotResponse(Long id, String name, String address, Integer totalSlots, 
                                 Integer bookedSlots, Boolean isOpen) {
@@ -97,6 +132,41 @@ public class ParkingLotDto {
 
         public Boolean getIsOpen() { return isOpen; }
         public void setIsOpen(Boolean isOpen) { this.isOpen = isOpen; }
+
+        public Double getLatitude() { return latitude; }
+        public void setLatitude(Double latitude) { this.latitude = latitude; }
+
+        public Double getLongitude() { return longitude; }
+        public void setLongitude(Double longitude) { this.longitude = longitude; }
+    }
+    
+    public static class ParkingLotPage {
+        public static final int DEFAULT_LIMIT = 50;
+        public static final int MAX_LIMIT = 200;
+
+        private List<ParkingLotResponse> items;
+        private String nextCursor;
+
+        public ParkingLotPage(List<ParkingLotResponse> items, String nextCursor) {
+            this.items = items;
+            this.nextCursor = nextCursor;
+        }
+
+        public static int normalizeLimit(Integer limit) {
+            if (limit == null) {
+                return DEFAULT_LIMIT;
+            }
+            if (limit < 1 || limit > MAX_LIMIT) {
+                throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+            }
+            return limit;
+        }
+
+        public List<ParkingLotResponse> getItems() { return items; }
+        public void setItems(List<ParkingLotResponse> items) { this.items = items; }
+
+        public String getNextCursor() { return nextCursor; }
+        public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
     }
     
     public static class ParkingLotIdsRequest {
@@ -140,4 +210,205 @@ public class ParkingLotDto {
         public Boolean getIsOpen() { return isOpen; }
         public void setIsOpen(Boolean isOpen) { this.isOpen = isOpen; }
     }
+
+    public static class AvailabilityResponse {
+        private Long parkingLotId;
+        private LocalDateTime from;
+        private LocalDateTime to;
+        private Integer availableSlots;
+
+        public AvailabilityResponse(Long parkingLotId, LocalDateTime from, LocalDateTime to, Integer availableSlots) {
+            this.parkingLotId = parkingLotId;
+            this.from = from;
+            this.to = to;
+            this.availableSlots = availableSlots;
+        }
+
+        public Long getParkingLotId() { return parkingLotId; }
+        public void setParkingLotId(Long parkingLotId) { this.parkingLotId = parkingLotId; }
+
+        public LocalDateTime getFrom() { return from; }
+        public void setFrom(LocalDateTime from) { this.from = from; }
+
+        public LocalDateTime getTo() { return to; }
+        public void setTo(LocalDateTime to) { this.to = to; }
+
+        public Integer getAvailableSlots() { return availableSlots; }
+        public void setAvailableSlots(Integer availableSlots) { this.availableSlots = availableSlots; }
+    }
+
+    public static class BookingStatsResponse {
+        private Long parkingLotId;
+        private Map<String, Long> bookingsByStatus;
+
+        public BookingStatsResponse(Long parkingLotId, Map<String, Long> bookingsByStatus) {
+            this.parkingLotId = parkingLotId;
+            this.bookingsByStatus = bookingsByStatus;
+        }
+
+        public Long getParkingLotId() { return parkingLotId; }
+        public void setParkingLotId(Long parkingLotId) { this.parkingLotId = parkingLotId; }
+
+        public Map<String, Long> getBookingsByStatus() { return bookingsByStatus; }
+        public void setBookingsByStatus(Map<String, Long> bookingsByStatus) { this.bookingsByStatus = bookingsByStatus; }
+    }
+
+    public static class AvailabilityDelta {
+        private Long parkingLotId;
+        private Integer bookedSlots;
+        private Integer availableSlots;
+        private Boolean isOpen;
+        private boolean deleted;
+
+        public AvailabilityDelta(Long parkingLotId, Integer bookedSlots, Integer availableSlots, Boolean isOpen,
+                                 boolean deleted) {
+            this.parkingLotId = parkingLotId;
+            this.bookedSlots = bookedSlots;
+            this.availableSlots = availableSlots;
+            this.isOpen = isOpen;
+            this.deleted = deleted;
+        }
+
+        public static AvailabilityDelta deleted(Long parkingLotId) {
+            return new AvailabilityDelta(parkingLotId, null, null, null, true);
+        }
+
+        public Long getParkingLotId() { return parkingLotId; }
+        public void setParkingLotId(Long parkingLotId) { this.parkingLotId = parkingLotId; }
+
+        public Integer getBookedSlots() { return bookedSlots; }
+        public void setBookedSlots(Integer bookedSlots) { this.bookedSlots = bookedSlots; }
+
+        public Integer getAvailableSlots() { return availableSlots; }
+        public void setAvailableSlots(Integer availableSlots) { this.availableSlots = availableSlots; }
+
+        public Boolean getIsOpen() { return isOpen; }
+        public void setIsOpen(Boolean isOpen) { this.isOpen = isOpen; }
+
+        public boolean isDeleted() { return deleted; }
+        public void setDeleted(boolean deleted) { this.deleted = deleted; }
+    }
+
+    public static class NearbyParkingLotResponse {
+        private Long id;
+        private String name;
+        private String address;
+        private Double latitude;
+        private Double longitude;
+        private double distanceKm;
+        private Integer availableSlots;
+
+        public NearbyParkingLotResponse(Long id, String name, String address, Double latitude, Double longitude,
+                                        double distanceKm, Integer availableSlots) {
+            this.id = id;
+            this.name = name;
+            this.address = address;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.distanceKm = distanceKm;
+            this.availableSlots = availableSlots;
+        }
+
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public String getAddress() { return address; }
+        public void setAddress(String address) { this.address = address; }
+
+        public Double getLatitude() { return latitude; }
+        public void setLatitude(Double latitude) { this.latitude = latitude; }
+
+        public Double getLongitude() { return longitude; }
+        public void setLongitude(Double longitude) { this.longitude = longitude; }
+
+        public double getDistanceKm() { return distanceKm; }
+        public void setDistanceKm(double distanceKm) { this.distanceKm = distanceKm; }
+
+        public Integer getAvailableSlots() { return availableSlots; }
+        public void setAvailableSlots(Integer availableSlots) { this.availableSlots = availableSlots; }
+    }
+
+    public static class ParkingLotSearchResult {
+        private Long id;
+        private String name;
+        private String address;
+        private Boolean isOpen;
+        private double score;
+
+        public ParkingLotSearchResult(Long id, String name, String address, Boolean isOpen, double score) {
+            this.id = id;
+            this.name = name;
+            this.address = address;
+            this.isOpen = isOpen;
+            this.score = score;
+        }
+
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public String getAddress() { return address; }
+        public void setAddress(String address) { this.address = address; }
+
+        public Boolean getIsOpen() { return isOpen; }
+        public void setIsOpen(Boolean isOpen) { this.isOpen = isOpen; }
+
+        public double getScore() { return score; }
+        public void setScore(double score) { this.score = score; }
+    }
+
+    public static class ImportResult {
+        public static final int MAX_REPORTED_ERRORS = 1000;
+
+        private int imported;
+        private int failed;
+        private List<ImportError> errors = new ArrayList<>();
+
+        public void addImported(int count) {
+            imported += count;
+        }
+
+        // Every failure is counted, only the first MAX_REPORTED_ERRORS are listed
+        public void addError(long line, String name, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportError(line, name, message));
+            }
+        }
+
+        public int getImported() { return imported; }
+        public void setImported(int imported) { this.imported = imported; }
+
+        public int getFailed() { return failed; }
+        public void setFailed(int failed) { this.failed = failed; }
+
+        public List<ImportError> getErrors() { return errors; }
+        public void setErrors(List<ImportError> errors) { this.errors = errors; }
+    }
+
+    public static class ImportError {
+        private long line;
+        private String name;
+        private String message;
+
+        public ImportError(long line, String name, String message) {
+            this.line = line;
+            this.name = name;
+            this.message = message;
+        }
+
+        public long getLine() { return line; }
+        public void setLine(long line) { this.line = line; }
+
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+    }
 }
@@ -0,0 +1,369 @@
+package com.project.smartparking.parkinglot;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.smartparking.booking.BookingStats;
+import com.project.smartparking.booking.SlotInventory;
+import com.project.smartparking.repository.ParkingSlot;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streams a CSV or NDJSON upload of parking lots into the database.
+ * Rows are validated one at a time against the same constraints as POST /api/parking-lots, names are
+ * checked against one preloaded set instead of a query per row, and valid rows are inserted in
+ * fixed-size JDBC batches, each in its own transaction. Invalid rows are reported and skipped.
+ */
+@Component
+public class ParkingLotImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(ParkingLotImporter.class);
+
+    private static final String INSERT_SQL = "INSERT INTO parking_slot " +
+            "(name, address, total_slots, booked_slots, isopen, latitude, longitude, version) " +
+            "VALUES (?, ?, ?, 0, ?, ?, ?, 0)";
+
+    private static final List<String> CSV_REQUIRED_COLUMNS = List.of("name", "address", "totalslots", "isopen");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ParkingLotRepository parkingLotRepository;
+
+    @Autowired
+    private BookingStats bookingStats;
+
+    @Autowired
+    private SlotInventory slotInventory;
+
+    @Autowired
+    private LotLocationIndex lotLocationIndex;
+
+    @Autowired
+    private LotSearchIndex lotSearchIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${app.parking-lots.import.batch-size:500}")
+    private int batchSize;
+
+    public ParkingLotDto.ImportResult importLots(InputStream in, boolean csv) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        RowReader rows = csv ? new CsvRowReader(reader) : new NdjsonRowReader(reader);
+
+        // Lower-cased, as MySQL compares names case-insensitively
+        Set<String> names = parkingLotRepository.findAllNames().stream()
+                .map(name -> name.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toCollection(HashSet::new));
+
+        ParkingLotDto.ImportResult result = new ParkingLotDto.ImportResult();
+        List<Row> batch = new ArrayList<>(batchSize);
+        Row row;
+        while ((row = rows.next()) != null) {
+            String error = row.error != null ? row.error : validate(row.request);
+            if (error == null && !names.add(row.request.getName().toLowerCase(Locale.ROOT))) {
+                error = "Parking lot with name '" + row.request.getName() + "' already exists";
+            }
+            if (error != null) {
+                result.addError(row.line, row.request == null ? null : row.request.getName(), error);
+                continue;
+            }
+
+            batch.add(row);
+            if (batch.size() == batchSize) {
+                flush(batch, result);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            flush(batch, result);
+        }
+
+        log.info("Imported {} parking lots, {} rows failed", result.getImported(), result.getFailed());
+        return result;
+    }
+
+    private String validate(ParkingLotDto.CreateParkingLotRequest request) {
+        Set<ConstraintViolation<ParkingLotDto.CreateParkingLotRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private void flush(List<Row> batch, ParkingLotDto.ImportResult result) {
+        List<ParkingSlot> saved;
+        try {
+            saved = transactionTemplate.execute(status -> insert(batch));
+        } catch (DataAccessException e) {
+            if (batch.size() == 1) {
+                Row row = batch.get(0);
+                result.addError(row.line, row.request.getName(), "Not saved: " + e.getMostSpecificCause().getMessage());
+                return;
+            }
+            // One bad row rolls back the whole batch; retry its rows alone so the others are still imported
+            log.warn("Parking lot import batch of {} rows failed, retrying row by row: {}",
+                    batch.size(), e.getMostSpecificCause().getMessage());
+            for (Row row : batch) {
+                flush(List.of(row), result);
+            }
+            return;
+        }
+
+        for (ParkingSlot lot : saved) {
+            slotInventory.register(lot);
+            lotLocationIndex.put(lot);
+            lotSearchIndex.put(lot);
+        }
+        result.addImported(saved.size());
+    }
+
+    // Runs in the batch's transaction; JDBC and JPA share its connection
+    private List<ParkingSlot> insert(List<Row> batch) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, row) -> {
+            ParkingLotDto.CreateParkingLotRequest request = row.request;
+            ps.setString(1, request.getName());
+            ps.setString(2, request.getAddress());
+            ps.setInt(3, request.getTotalSlots());
+            ps.setBoolean(4, request.getIsOpen());
+            ps.setObject(5, request.getLatitude(), Types.DOUBLE);
+            ps.setObject(6, request.getLongitude(), Types.DOUBLE);
+        });
+
+        // Identity keys are not returned by a batch, so read the new rows back by their (unique) names
+        List<ParkingSlot> saved = parkingLotRepository.findByNameIn(
+                batch.stream().map(row -> row.request.getName()).collect(Collectors.toList()));
+        bookingStats.initializeAll(saved.stream().map(ParkingSlot::getId).collect(Collectors.toList()));
+        for (ParkingSlot lot : saved) {
+            eventPublisher.publishEvent(new ParkingLotChangedEvent(lot.getId()));
+        }
+        return saved;
+    }
+
+    private static final class Row {
+        private final long line;
+        private final ParkingLotDto.CreateParkingLotRequest request;
+        private final String error;
+
+        private Row(long line, ParkingLotDto.CreateParkingLotRequest request, String error) {
+            this.line = line;
+            this.request = request;
+            this.error = error;
+        }
+    }
+
+    private interface RowReader {
+        // Next row, or null at the end of the input
+        Row next() throws IOException;
+    }
+
+    /**
+     * One JSON object per line with the fields of CreateParkingLotRequest; blank lines are skipped
+     */
+    private final class NdjsonRowReader implements RowReader {
+        private final BufferedReader reader;
+        private long line;
+
+        private NdjsonRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String text;
+            do {
+                text = reader.readLine();
+                if (text == null) {
+                    return null;
+                }
+                line++;
+            } while (text.isBlank());
+
+            try {
+                ParkingLotDto.CreateParkingLotRequest request =
+                        objectMapper.readValue(text, ParkingLotDto.CreateParkingLotRequest.class);
+                if (request == null) {
+                    return new Row(line, null, "Expected a JSON object");
+                }
+                return new Row(line, request, null);
+            } catch (JsonProcessingException e) {
+                return new Row(line, null, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    /**
+     * RFC 4180 CSV with a header row naming the columns name, address, totalSlots, isOpen and
+     * optionally latitude and longitude, in any order; quoted fields may span lines
+     */
+    private static final class CsvRowReader implements RowReader {
+        private final BufferedReader reader;
+        private long line;
+        private Map<String, Integer> columns;
+        private boolean unterminated;
+
+        private CsvRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            if (columns == null) {
+                List<String> header = readRecord();
+                if (header == null) {
+                    return null;
+                }
+                columns = new HashMap<>();
+                for (int i = 0; i < header.size(); i++) {
+                    columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+                }
+                for (String column : CSV_REQUIRED_COLUMNS) {
+                    if (!columns.containsKey(column)) {
+                        throw new IllegalArgumentException("CSV header is missing the '" + column + "' column");
+                    }
+                }
+            }
+
+            long start;
+            List<String> fields;
+            do {
+                start = line + 1;
+                fields = readRecord();
+                if (fields == null) {
+                    return null;
+                }
+            } while (fields.size() == 1 && fields.get(0).isBlank());
+            if (unterminated) {
+                return new Row(start, null, "Unterminated quoted field");
+            }
+
+            ParkingLotDto.CreateParkingLotRequest request = new ParkingLotDto.CreateParkingLotRequest();
+            try {
+                request.setName(field(fields, "name"));
+                request.setAddress(field(fields, "address"));
+                String totalSlots = field(fields, "totalslots");
+                request.setTotalSlots(totalSlots == null ? null : Integer.valueOf(totalSlots));
+                request.setIsOpen(parseBoolean(field(fields, "isopen")));
+                String latitude = field(fields, "latitude");
+                request.setLatitude(latitude == null ? null : Double.valueOf(latitude));
+                String longitude = field(fields, "longitude");
+                request.setLongitude(longitude == null ? null : Double.valueOf(longitude));
+            } catch (IllegalArgumentException e) {
+                return new Row(start, request, "Invalid value: " + e.getMessage());
+            }
+            return new Row(start, request, null);
+        }
+
+        // Empty and missing fields are null
+        private String field(List<String> fields, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= fields.size()) {
+                return null;
+            }
+            String value = fields.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        private static Boolean parseBoolean(String value) {
+            if (value == null) {
+                return null;
+            }
+            if (value.equalsIgnoreCase("true")) {
+                return true;
+            }
+            if (value.equalsIgnoreCase("false")) {
+                return false;
+            }
+            throw new IllegalArgumentException("isOpen must be true or false, got '" + value + "'");
+        }
+
+        private List<String> readRecord() throws IOException {
+            String text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int i = 0;
+            while (true) {
+                if (i == text.length()) {
+                    if (!quoted) {
+                        break;
+                    }
+                    // Quoted field continues on the next line
+                    String more = reader.readLine();
+                    if (more == null) {
+                        unterminated = true;
+                        break;
+                    }
+                    line++;
+                    field.append('\n');
+                    text = more;
+                    i = 0;
+                    continue;
+                }
+                char c = text.charAt(i++);
+                if (quoted) {
+                    if (c == '"' && i < text.length() && text.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
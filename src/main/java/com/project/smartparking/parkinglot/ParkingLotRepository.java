@@ -2,10 +2,62 @@ package com.project.smartparking.parkinglot;
 
 import com.project.smartparking.repository.ParkingSlot;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface ParkingLotRepository extends JpaRepository<ParkingSlot, Long> {
     
     ParkingSlot findByName(String name);
+
+    List<ParkingSlot> findByNameIn(Collection<String> names);
+
+    @Query("SELECT p.name FROM ParkingSlot p")
+    List<String> findAllNames();
+
+    /**
+     * Count more active bookings, only if the lot is still open.
+     * Capacity is checked per time window afterwards (see {@link #lockTotalSlots}), so booked_slots may
+     * exceed total_slots when bookings do not overlap. Returns the number of rows updated (0 when the guard rejects).
+     */
+    @Modifying
+    @Query("UPDATE ParkingSlot p SET p.bookedSlots = p.bookedSlots + :count, p.version = p.version + 1 " +
+           "WHERE p.id = :id AND p.isOpen = true")
+    int incrementBookedSlots(@Param("id") Long id, @Param("count") int count);
+
+    /**
+     * Current total slots of a lot, read with a row lock held until commit.
+     * Bookings on every instance take this lock before counting overlapping bookings, so they are checked one at a time.
+     */
+    @Query(value = "SELECT total_slots FROM parking_slot WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Integer lockTotalSlots(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE ParkingSlot p SET p.bookedSlots = CASE WHEN p.bookedSlots > :count " +
+           "THEN p.bookedSlots - :count ELSE 0 END, p.version = p.version + 1 " +
+           "WHERE p.id = :id AND p.bookedSlots > 0")
+    int decrementBookedSlots(@Param("id") Long id, @Param("count") int count);
+
+    /**
+     * Overwrite the given fields of a lot in one statement; null fields keep their current value.
+     * Nothing is read first, so a booking bumping the row version meanwhile cannot make the edit fail.
+     * Returns the number of rows updated (0 when the lot does not exist).
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ParkingSlot p SET p.name = COALESCE(:name, p.name), " +
+           "p.address = COALESCE(:address, p.address), " +
+           "p.totalSlots = COALESCE(:totalSlots, p.totalSlots), " +
+           "p.isOpen = COALESCE(:isOpen, p.isOpen), " +
+           "p.latitude = COALESCE(:latitude, p.latitude), " +
+           "p.longitude = COALESCE(:longitude, p.longitude), " +
+           "p.version = p.version + 1 " +
+           "WHERE p.id = :id")
+    int updateFields(@Param("id") Long id, @Param("name") String name, @Param("address") String address,
+                     @Param("totalSlots") Integer totalSlots, @Param("isOpen") Boolean isOpen,
+                     @Param("latitude") Double latitude, @Param("longitude") Double longitude);
 }
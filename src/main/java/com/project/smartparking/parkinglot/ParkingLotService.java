@@ -1,53 +1,99 @@
 package com.project.smartparking.parkinglot;
 
+import com.project.smartparking.booking.BookingCursor;
+import com.project.smartparking.booking.BookingDto;
 import com.project.smartparking.booking.BookingRepository;
+import com.project.smartparking.booking.BookingStats;
+import com.project.smartparking.booking.SlotInventory;
 import com.project.smartparking.repository.Booking;
 import com.project.smartparking.repository.ParkingSlot;
-import com.project.smartparking.repository.User;
-import com.project.smartparking.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.access.AccessDeniedException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ParkingLotService {
 
+    // Checked by method security against the role claim of the caller's token
+    private static final String ADMIN_ONLY = "hasRole('ADMIN')";
+
     @Autowired
     private ParkingLotRepository parkingLotRepository;
 
-    @Autowired
-    private UserRepository userRepository;
-    
     @Autowired
     private BookingRepository bookingRepository;
 
+    @Autowired
+    private SlotInventory slotInventory;
+
+    @Autowired
+    private BookingStats bookingStats;
+
+    @Autowired
+    private LotLocationIndex lotLocationIndex;
+
+    @Autowired
+    private LotSearchIndex lotSearchIndex;
+
+    @Autowired
+    private ParkingLotImporter parkingLotImporter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public static final String EXPORT_FORMAT_NDJSON = "ndjson";
+    public static final String EXPORT_FORMAT_CSV = "csv";
+
+    private static final int DEFAULT_NEARBY_LIMIT = 5;
+    private static final int MAX_NEARBY_LIMIT = 50;
+    private static final double DEFAULT_NEARBY_RADIUS_KM = 10;
+    private static final double MAX_NEARBY_RADIUS_KM = 100;
+
+    private static final int DEFAULT_SEARCH_LIMIT = 10;
+    private static final int MAX_SEARCH_LIMIT = 50;
+    private static final int MAX_SEARCH_QUERY_LENGTH = 100;
+
     public List<ParkingLotDto.ParkingLotResponse> getAllParkingLots() {
         List<ParkingSlot> parkingSlots = parkingLotRepository.findAll();
         return parkingSlots.stream()
-                .map(slot -> new ParkingLotDto.ParkingLotResponse(
-                        slot.getId(),
-                        slot.getName(),
-                        slot.getAddress(),
-                        slot.getTotalSlots(),
-                        slot.getBookedSlots(),
-                        slot.getIsOpen()
-                ))
+                .map(this::toResponse)
                 .collect(Collectors.toList());
     }
 
+    @Transactional
+    @PreAuthorize(ADMIN_ONLY)
     public ParkingLotDto.ParkingLotResponse createParkingLot(
-            ParkingLotDto.CreateParkingLotRequest request, String userEmail) {
+            ParkingLotDto.CreateParkingLotRequest request) {
         
-        // Check if user is admin
-        if (!isUserAdmin(userEmail)) {
-            throw new AccessDeniedException("Only admin users can create parking lots");
-        }
-
         // Check if parking lot with same name already exists
         ParkingSlot existingSlot = parkingLotRepository.findByName(request.getName());
         if (existingSlot != null) {
@@ -60,77 +106,153 @@ public class ParkingLotService {
         parkingSlot.setTotalSlots(request.getTotalSlots());
         parkingSlot.setBookedSlots(0); // Initially no bookings
         parkingSlot.setIsOpen(request.getIsOpen());
+        parkingSlot.setLatitude(request.getLatitude());
+        parkingSlot.setLongitude(request.getLongitude());
 
         ParkingSlot savedSlot = parkingLotRepository.save(parkingSlot);
+        bookingStats.initialize(savedSlot.getId());
+        afterCommit(() -> {
+            slotInventory.register(savedSlot);
+            lotLocationIndex.put(savedSlot);
+            lotSearchIndex.put(savedSlot);
+        });
+        eventPublisher.publishEvent(new ParkingLotChangedEvent(savedSlot.getId()));
 
-        return new ParkingLotDto.ParkingLotResponse(
-                savedSlot.getId(),
-                savedSlot.getName(),
-                savedSlot.getAddress(),
-                savedSlot.getTotalSlots(),
-                savedSlot.getBookedSlots(),
-                savedSlot.getIsOpen()
-        );
+        return toResponse(savedSlot);
     }
 
+    @Transactional
+    @PreAuthorize(ADMIN_ONLY)
     public ParkingLotDto.ParkingLotResponse updateParkingLot(
-            Long id, ParkingLotDto.UpdateParkingLotRequest request, String userEmail) {
+            Long id, ParkingLotDto.UpdateParkingLotRequest request) {
         
-        // Check if user is admin
-        if (!isUserAdmin(userEmail)) {
-            throw new AccessDeniedException("Only admin users can update parking lots");
-        }
-
-        Optional<ParkingSlot> optionalSlot = parkingLotRepository.findById(id);
-        if (optionalSlot.isEmpty()) {
-            throw new IllegalArgumentException("Parking lot with id " + id + " not found");
-        }
-
-        ParkingSlot parkingSlot = optionalSlot.get();
-
-        // Update only non-null fields
         if (request.getName() != null) {
             // Check if another parking lot with same name exists
             ParkingSlot existingSlot = parkingLotRepository.findByName(request.getName());
             if (existingSlot != null && !existingSlot.getId().equals(id)) {
                 throw new IllegalArgumentException("Parking lot with name '" + request.getName() + "' already exists");
             }
-            parkingSlot.setName(request.getName());
         }
-        
-        if (request.getAddress() != null) {
-            parkingSlot.setAddress(request.getAddress());
+
+        int updated = parkingLotRepository.updateFields(id, request.getName(), request.getAddress(),
+                request.getTotalSlots(), request.getIsOpen(), request.getLatitude(), request.getLongitude());
+        if (updated == 0) {
+            throw new IllegalArgumentException("Parking lot with id " + id + " not found");
         }
-        
-        if (request.getTotalSlots() != null) {
-            // Ensure total slots is not less than booked slots
-            if (request.getTotalSlots() < parkingSlot.getBookedSlots()) {
-                throw new IllegalArgumentException("Total slots cannot be less than currently booked slots (" + 
-                        parkingSlot.getBookedSlots() + ")");
-            }
-            parkingSlot.setTotalSlots(request.getTotalSlots());
+        return afterUpdate(id);
+    }
+
+    /**
+     * Free spaces for a parking lot over the window [from, to)
+     */
+    public ParkingLotDto.AvailabilityResponse getAvailability(Long id, LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || !to.isAfter(from)) {
+            throw new IllegalArgumentException("'to' must be after 'from'");
         }
-        
-        if (request.getIsOpen() != null) {
-            parkingSlot.setIsOpen(request.getIsOpen());
+
+        if (!slotInventory.isTracked(id)) {
+            ParkingSlot parkingSlot = parkingLotRepository.findById(id)
+                    .orElseThrow(() -> new IllegalArgumentException("Parking lot with id " + id + " not found"));
+            slotInventory.register(parkingSlot);
         }
 
-        ParkingSlot savedSlot = parkingLotRepository.save(parkingSlot);
+        Integer availableSlots = slotInventory.availableSlots(id, from, to);
+        if (availableSlots == null) {
+            throw new IllegalArgumentException("Parking lot with id " + id + " not found");
+        }
+        return new ParkingLotDto.AvailabilityResponse(id, from, to, availableSlots);
+    }
 
-        return new ParkingLotDto.ParkingLotResponse(
-                savedSlot.getId(),
-                savedSlot.getName(),
-                savedSlot.getAddress(),
-                savedSlot.getTotalSlots(),
-                savedSlot.getBookedSlots(),
-                savedSlot.getIsOpen()
+    /**
+     * Nearest open lots around a point with at least minFree spaces right now
+     */
+    public List<ParkingLotDto.NearbyParkingLotResponse> findNearby(
+            Double lat, Double lon, Integer limit, Integer minFree, Double radiusKm) {
+        if (lat == null || lat < -90 || lat > 90 || lon == null || lon < -180 || lon > 180) {
+            throw new IllegalArgumentException("'lat' must be between -90 and 90 and 'lon' between -180 and 180");
+        }
+        int k = limit == null ? DEFAULT_NEARBY_LIMIT : limit;
+        if (k < 1 || k > MAX_NEARBY_LIMIT) {
+            throw new IllegalArgumentException("'limit' must be between 1 and " + MAX_NEARBY_LIMIT);
+        }
+        int free = minFree == null ? 1 : minFree;
+        if (free < 0) {
+            throw new IllegalArgumentException("'minFree' must not be negative");
+        }
+        double radius = radiusKm == null ? DEFAULT_NEARBY_RADIUS_KM : radiusKm;
+        if (radius <= 0 || radius > MAX_NEARBY_RADIUS_KM) {
+            throw new IllegalArgumentException("'radiusKm' must be greater than 0 and at most " + (int) MAX_NEARBY_RADIUS_KM);
+        }
+        return lotLocationIndex.nearest(lat, lon, k, free, radius);
+    }
+
+    /**
+     * Typeahead search over lot names and addresses, best match first
+     */
+    public List<ParkingLotDto.ParkingLotSearchResult> search(String query, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("'q' must not be blank");
+        }
+        if (query.length() > MAX_SEARCH_QUERY_LENGTH) {
+            throw new IllegalArgumentException("'q' must be at most " + MAX_SEARCH_QUERY_LENGTH + " characters");
+        }
+        int size = limit == null ? DEFAULT_SEARCH_LIMIT : limit;
+        if (size < 1 || size > MAX_SEARCH_LIMIT) {
+            throw new IllegalArgumentException("'limit' must be between 1 and " + MAX_SEARCH_LIMIT);
+        }
+        return lotSearchIndex.search(query, size);
+    }
+
+    /**
+     * Build the API view of a lot; available slots reflect bookings overlapping the current time
+     */
+    private ParkingLotDto.ParkingLotResponse toResponse(ParkingSlot slot) {
+        ParkingLotDto.ParkingLotResponse response = new ParkingLotDto.ParkingLotResponse(
+                slot.getId(),
+                slot.getName(),
+                slot.getAddress(),
+                slot.getTotalSlots(),
+                slot.getBookedSlots(),
+                slot.getIsOpen()
         );
+        response.setLatitude(slot.getLatitude());
+        response.setLongitude(slot.getLongitude());
+        Integer availableNow = slotInventory.availableSlotsNow(slot.getId());
+        if (availableNow != null) {
+            response.setAvailableSlots(availableNow);
+        }
+        return response;
     }
 
-    private boolean isUserAdmin(String email) {
-        User user = userRepository.findByEmail(email);
-        return user != null && "ADMIN".equals(user.getRole());
+    /**
+     * Bring the in-memory views of a lot in line with its row once the UPDATE in the current transaction commits.
+     * SlotInventory rejects a capacity below the busiest window; the exception rolls the UPDATE back.
+     */
+    private ParkingLotDto.ParkingLotResponse afterUpdate(Long id) {
+        ParkingSlot savedSlot = parkingLotRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Parking lot with id " + id + " not found"));
+        slotInventory.checkResize(savedSlot);
+        afterCommit(() -> {
+            slotInventory.register(savedSlot);
+            lotLocationIndex.put(savedSlot);
+            lotSearchIndex.put(savedSlot);
+        });
+        eventPublisher.publishEvent(new ParkingLotChangedEvent(savedSlot.getId()));
+        return toResponse(savedSlot);
+    }
+
+    /**
+     * Run an in-memory update once the current transaction commits, so a rollback leaves no trace of it
+     */
+    private void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
+
     
     public Map<Long, ParkingLotDto.ParkingLotDetailsResponse> getParkingLotDetailsByIds(List<Long> ids) {
         List<ParkingSlot> parkingSlots = parkingLotRepository.findAllById(ids);
@@ -152,12 +274,9 @@ public class ParkingLotService {
      * Delete a parking slot by ID
      * Only admin users can delete parking slots
      */
-    public void deleteParkingLot(Long id, String userEmail) {
-        // Check if user is admin
-        if (!isUserAdmin(userEmail)) {
-            throw new AccessDeniedException("Only admin users can delete parking lots");
-        }
-        
+    @Transactional
+    @PreAuthorize(ADMIN_ONLY)
+    public void deleteParkingLot(Long id) {
         // Check if parking lot exists
         Optional<ParkingSlot> parkingSlotOpt = parkingLotRepository.findById(id);
         if (parkingSlotOpt.isEmpty()) {
@@ -165,82 +284,159 @@ public class ParkingLotService {
         }
         
         // Check if there are any active bookings
-        List<Booking> activeBookings = bookingRepository.findByParkingLotId(id).stream()
-                .filter(booking -> !"CANCELLED".equals(booking.getStatus()) && !"COMPLETED".equals(booking.getStatus()))
-                .collect(Collectors.toList());
-                
-        if (!activeBookings.isEmpty()) {
+        long activeBookings = bookingStats.countActive(id);
+        if (activeBookings > 0) {
             throw new IllegalStateException("Cannot delete parking lot with active bookings. " + 
-                    "There are " + activeBookings.size() + " active bookings.");
+                    "There are " + activeBookings + " active bookings.");
         }
         
         // Delete parking lot
         parkingLotRepository.deleteById(id);
+        bookingStats.remove(id);
+        afterCommit(() -> {
+            slotInventory.remove(id);
+            lotLocationIndex.remove(id);
+            lotSearchIndex.remove(id);
+        });
+        eventPublisher.publishEvent(new ParkingLotChangedEvent(id));
     }
     
     /**
-     * Get all bookings for a specific parking lot
+     * Booking counts of a parking lot by status
+     * Only admin users can see parking lot statistics
+     */
+    @PreAuthorize(ADMIN_ONLY)
+    public ParkingLotDto.BookingStatsResponse getBookingStats(Long id) {
+        if (!parkingLotRepository.existsById(id)) {
+            throw new IllegalArgumentException("Parking lot with id " + id + " not found");
+        }
+        return new ParkingLotDto.BookingStatsResponse(id, bookingStats.countsByStatus(id));
+    }
+
+    /**
+     * Get one page of bookings for a specific parking lot, newest first
      */
-    public List<Booking> getBookingsByParkingLotId(Long parkingLotId, String userEmail) {
+    @PreAuthorize(ADMIN_ONLY)
+    public BookingDto.BookingPage getBookingsByParkingLotId(
+            Long parkingLotId, String status, String cursor, Integer limit) {
         // Check if parking lot exists
         Optional<ParkingSlot> parkingSlotOpt = parkingLotRepository.findById(parkingLotId);
         if (parkingSlotOpt.isEmpty()) {
             throw new IllegalArgumentException("Parking lot with id " + parkingLotId + " not found");
         }
         
-        // For security: only admin users can see all bookings for a parking lot
-        if (!isUserAdmin(userEmail)) {
-            throw new AccessDeniedException("Only admin users can view all bookings for a parking lot");
+        int pageSize = BookingDto.BookingPage.normalizeLimit(limit);
+        String statusFilter = status == null ? null : status.toUpperCase();
+
+        List<BookingDto.BookingResponse> rows;
+        if (cursor == null) {
+            rows = bookingRepository.findParkingLotBookingPage(parkingLotId, statusFilter, Limit.of(pageSize + 1));
+        } else {
+            BookingCursor after = BookingCursor.decode(cursor);
+            rows = bookingRepository.findParkingLotBookingPageAfter(
+                    parkingLotId, statusFilter, after.getCreatedAt(), after.getId(), Limit.of(pageSize + 1));
         }
-        
-        // Get all bookings for this parking lot
-        return bookingRepository.findByParkingLotId(parkingLotId);
+
+        return BookingDto.BookingPage.of(rows, pageSize);
     }
     
     /**
-     * Update specific fields of a parking slot
-     * This method only updates totalSlots and isOpen
+     * Check that a booking export may start, before any bytes are streamed
      */
-    public ParkingLotDto.ParkingLotResponse updateParkingSlotPartial(
-            Long id, 
-            ParkingLotDto.UpdateParkingSlotPartialRequest request, 
-            String userEmail) {
-        // Check if user is admin
-        if (!isUserAdmin(userEmail)) {
-            throw new AccessDeniedException("Only admin users can update parking lots");
+    @PreAuthorize(ADMIN_ONLY)
+    public void checkBookingExport(Long parkingLotId, String format) {
+        if (!EXPORT_FORMAT_NDJSON.equals(format) && !EXPORT_FORMAT_CSV.equals(format)) {
+            throw new IllegalArgumentException("Unsupported export format '" + format + "', use ndjson or csv");
         }
-        
-        // Check if parking lot exists
-        Optional<ParkingSlot> parkingSlotOpt = parkingLotRepository.findById(id);
-        if (parkingSlotOpt.isEmpty()) {
-            throw new IllegalArgumentException("Parking slot with id " + id + " not found");
+
+        if (!parkingLotRepository.existsById(parkingLotId)) {
+            throw new IllegalArgumentException("Parking lot with id " + parkingLotId + " not found");
         }
-        
-        ParkingSlot parkingSlot = parkingSlotOpt.get();
-        
-        // Update only the specific fields
-        if (request.getTotalSlots() != null) {
-            // Ensure total slots is not less than booked slots
-            if (request.getTotalSlots() < parkingSlot.getBookedSlots()) {
-                throw new IllegalArgumentException("Total slots cannot be less than currently booked slots (" + 
-                        parkingSlot.getBookedSlots() + ")");
-            }
-            parkingSlot.setTotalSlots(request.getTotalSlots());
+    }
+
+    /**
+     * Create parking lots in bulk from a CSV or NDJSON stream
+     * Only admin users can import parking lots; invalid rows are skipped and reported
+     */
+    @PreAuthorize(ADMIN_ONLY)
+    public ParkingLotDto.ImportResult importParkingLots(String format, InputStream in) throws IOException {
+        if (!EXPORT_FORMAT_NDJSON.equals(format) && !EXPORT_FORMAT_CSV.equals(format)) {
+            throw new IllegalArgumentException("Unsupported import format '" + format + "', use ndjson or csv");
         }
-        
-        if (request.getIsOpen() != null) {
-            parkingSlot.setIsOpen(request.getIsOpen());
+
+        return parkingLotImporter.importLots(in, EXPORT_FORMAT_CSV.equals(format));
+    }
+
+    /**
+     * Stream every booking of a parking lot to the output as NDJSON or CSV.
+     * Rows are written and detached one at a time, so heap use does not grow with the lot's history.
+     */
+    @Transactional(readOnly = true)
+    public void exportBookings(Long parkingLotId, String format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        boolean csv = EXPORT_FORMAT_CSV.equals(format);
+        if (csv) {
+            writer.write("id,userId,parkingLotId,ownerName,mobileNo,vehicalNo,vehicalType,timingSlot,startTime,endTime,status,createdAt\n");
         }
 
-        ParkingSlot savedSlot = parkingLotRepository.save(parkingSlot);
+        try (Stream<Booking> bookings = bookingRepository.streamByParkingLotId(parkingLotId)) {
+            Iterator<Booking> iterator = bookings.iterator();
+            while (iterator.hasNext()) {
+                Booking booking = iterator.next();
+                if (csv) {
+                    writeCsvRow(writer, booking);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(booking));
+                    writer.write('\n');
+                }
+                entityManager.detach(booking);
+            }
+        }
+        writer.flush();
+    }
 
-        return new ParkingLotDto.ParkingLotResponse(
-                savedSlot.getId(),
-                savedSlot.getName(),
-                savedSlot.getAddress(),
-                savedSlot.getTotalSlots(),
-                savedSlot.getBookedSlots(),
-                savedSlot.getIsOpen()
-        );
+    private void writeCsvRow(Writer writer, Booking booking) throws IOException {
+        writer.write(String.join(",",
+                String.valueOf(booking.getId()),
+                String.valueOf(booking.getUserId()),
+                String.valueOf(booking.getParkingLotId()),
+                csvField(booking.getOwnerName()),
+                csvField(booking.getMobileNo()),
+                csvField(booking.getVehicalNo()),
+                csvField(booking.getVehicalType()),
+                csvField(booking.getTimingSlot()),
+                booking.getStartTime() == null ? "" : booking.getStartTime().toString(),
+                booking.getEndTime() == null ? "" : booking.getEndTime().toString(),
+                csvField(booking.getStatus()),
+                String.valueOf(booking.getCreatedAt())));
+        writer.write('\n');
+    }
+
+    private String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+    
+    /**
+     * Update specific fields of a parking slot
+     * This method only updates totalSlots and isOpen
+     */
+    @Transactional
+    @PreAuthorize(ADMIN_ONLY)
+    public ParkingLotDto.ParkingLotResponse updateParkingSlotPartial(
+            Long id, 
+            ParkingLotDto.UpdateParkingSlotPartialRequest request) {
+        // One UPDATE for both fields, so it never races a booking's increment of the same row
+        int updated = parkingLotRepository.updateFields(id, null, null,
+                request.getTotalSlots(), request.getIsOpen(), null, null);
+        if (updated == 0) {
+            throw new IllegalArgumentException("Parking slot with id " + id + " not found");
+        }
+        return afterUpdate(id);
     }
 }
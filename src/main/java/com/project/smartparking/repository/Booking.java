@@ -4,11 +4,16 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "booking")
+@Table(name = "booking", indexes = {
+	@Index(name = "idx_booking_user_created", columnList = "userid, createdAt, id"),
+	@Index(name = "idx_booking_lot_created", columnList = "parking_lot_id, createdAt, id")
+})
 public class Booking {
 
+	// A pooled sequence (a table on MySQL) instead of IDENTITY so inserts can be JDBC-batched
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_seq")
+	@SequenceGenerator(name = "booking_seq", sequenceName = "booking_seq", allocationSize = 50)
 	private Long id;
 
 	@Column(name = "userid", nullable = false)
@@ -32,6 +37,12 @@ public class Booking {
 	@Column(name = "timing_slot", nullable = false)
 	private String timingSlot;
 
+	@Column(name = "start_time")
+	private LocalDateTime startTime;
+
+	@Column(name = "end_time")
+	private LocalDateTime endTime;
+
 	@Column(name = "status", nullable = false)
 	private String status = "PENDING";
 
@@ -62,6 +73,12 @@ public class Booking {
 	public String getTimingSlot() { return timingSlot; }
 	public void setTimingSlot(String timingSlot) { this.timingSlot = timingSlot; }
 
+	public LocalDateTime getStartTime() { return startTime; }
+	public void setStartTime(LocalDateTime startTime) { this.startTime = startTime; }
+
+	public LocalDateTime getEndTime() { return endTime; }
+	public void setEndTime(LocalDateTime endTime) { this.endTime = endTime; }
+
 	public String getStatus() { return status; }
 	public void setStatus(String status) { this.status = status; }
 
@@ -0,0 +1,43 @@
+package com.project.smartparking.repository;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "idempotency_key")
+public class IdempotencyRecord {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	// Client key scoped to the user that sent it
+	@Column(name = "scope_key", nullable = false, unique = true, length = 400)
+	private String scopeKey;
+
+	// SHA-256 of the request the key was first used with; null on keys stored before it was recorded
+	@Column(name = "request_hash", length = 64)
+	private String requestHash;
+
+	@Lob
+	@Column(name = "response_body", nullable = false)
+	private String responseBody;
+
+	@Column(name = "created_at", nullable = false)
+	private LocalDateTime createdAt = LocalDateTime.now();
+
+	public Long getId() { return id; }
+	public void setId(Long id) { this.id = id; }
+
+	public String getScopeKey() { return scopeKey; }
+	public void setScopeKey(String scopeKey) { this.scopeKey = scopeKey; }
+
+	public String getRequestHash() { return requestHash; }
+	public void setRequestHash(String requestHash) { this.requestHash = requestHash; }
+
+	public String getResponseBody() { return responseBody; }
+	public void setResponseBody(String responseBody) { this.responseBody = responseBody; }
+
+	public LocalDateTime getCreatedAt() { return createdAt; }
+	public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
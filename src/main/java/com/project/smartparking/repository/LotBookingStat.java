@@ -0,0 +1,67 @@
+package com.project.smartparking.repository;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Number of bookings of a parking lot in one status, kept up to date by BookingService
+ */
+@Entity
+@Table(name = "lot_booking_stats")
+@IdClass(LotBookingStat.Key.class)
+public class LotBookingStat {
+
+	@Id
+	@Column(name = "lot_id")
+	private Long parkingLotId;
+
+	@Id
+	@Column(name = "status", length = 20)
+	private String status;
+
+	@Column(name = "booking_count", nullable = false)
+	private long count;
+
+	public LotBookingStat() {}
+
+	public LotBookingStat(Long parkingLotId, String status, long count) {
+		this.parkingLotId = parkingLotId;
+		this.status = status;
+		this.count = count;
+	}
+
+	public Long getParkingLotId() { return parkingLotId; }
+	public void setParkingLotId(Long parkingLotId) { this.parkingLotId = parkingLotId; }
+
+	public String getStatus() { return status; }
+	public void setStatus(String status) { this.status = status; }
+
+	public long getCount() { return count; }
+	public void setCount(long count) { this.count = count; }
+
+	public static class Key implements Serializable {
+		private Long parkingLotId;
+		private String status;
+
+		public Key() {}
+
+		public Key(Long parkingLotId, String status) {
+			this.parkingLotId = parkingLotId;
+			this.status = status;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof Key)) return false;
+			Key key = (Key) o;
+			return Objects.equals(parkingLotId, key.parkingLotId) && Objects.equals(status, key.status);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(parkingLotId, status);
+		}
+	}
+}
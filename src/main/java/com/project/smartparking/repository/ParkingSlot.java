@@ -25,6 +25,17 @@ public class ParkingSlot {
 	@Column(name = "isopen", nullable = false)
 	private Boolean isOpen;
 
+	// Optional location, used by the nearby search
+	@Column(name = "latitude")
+	private Double latitude;
+
+	@Column(name = "longitude")
+	private Double longitude;
+
+	@Version
+	@Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+	private Long version = 0L;
+
 	public Long getId() { return id; }
 	public void setId(Long id) { this.id = id; }
 
@@ -42,6 +53,15 @@ public class ParkingSlot {
 
 	public Boolean getIsOpen() { return isOpen; }
 	public void setIsOpen(Boolean open) { isOpen = open; }
+
+	public Double getLatitude() { return latitude; }
+	public void setLatitude(Double latitude) { this.latitude = latitude; }
+
+	public Double getLongitude() { return longitude; }
+	public void setLongitude(Double longitude) { this.longitude = longitude; }
+
+	public Long getVersion() { return version; }
+	public void setVersion(Long version) { this.version = version; }
 }
 
 
@@ -28,6 +28,10 @@ public class User {
 	@Column(nullable = false)
 	private String role = "USER"; // Default role is USER, can be ADMIN
 
+	// Tokens carrying an older version are rejected; bumped on role change and revocation
+	@Column(name = "token_version", nullable = false)
+	private Integer tokenVersion = 0;
+
 	public Long getId() { return id; }
 	public void setId(Long id) { this.id = id; }
 
@@ -48,6 +52,9 @@ public class User {
 
 	public String getRole() { return role; }
 	public void setRole(String role) { this.role = role; }
+
+	public Integer getTokenVersion() { return tokenVersion; }
+	public void setTokenVersion(Integer tokenVersion) { this.tokenVersion = tokenVersion; }
 }
 
 
@@ -1,11 +1,29 @@
 package com.project.smartparking.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 	User findByEmail(String email);
 	boolean existsByEmail(String email);
+
+	@Modifying
+	@Transactional
+	@Query("UPDATE User u SET u.tokenVersion = u.tokenVersion + 1 WHERE u.id = :id")
+	int incrementTokenVersion(@Param("id") Long id);
+
+	@Query("SELECT u.tokenVersion FROM User u WHERE u.id = :id")
+	Integer findTokenVersion(@Param("id") Long id);
+
+	// [id, tokenVersion] of every user whose tokens were ever revoked
+	@Query("SELECT u.id, u.tokenVersion FROM User u WHERE u.tokenVersion > 0")
+	List<Object[]> findBumpedTokenVersions();
 }
 
@@ -0,0 +1,124 @@
+package com.project.smartparking.booking;
+
+import com.project.smartparking.auth.AuthenticatedUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncBookingQueueTests {
+
+	private final AuthenticatedUser user = new AuthenticatedUser(1L, "driver@example.com", "USER");
+
+	@Mock
+	private BookingService bookingService;
+
+	@InjectMocks
+	private AsyncBookingQueue queue;
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(queue, "queueCapacity", 10);
+		ReflectionTestUtils.setField(queue, "workers", 1);
+		ReflectionTestUtils.setField(queue, "batchSize", 10);
+		ReflectionTestUtils.setField(queue, "ticketTtl", Duration.ofMinutes(10));
+		queue.init();
+	}
+
+	@AfterEach
+	void tearDown() {
+		queue.stop();
+	}
+
+	@Test
+	void successfulBatchIsNotRetried() throws Exception {
+		// Submitted before the worker starts, so both land in one micro-batch
+		QueuedBooking first = queue.submit(new BookingDto.CreateBookingRequest(), user);
+		QueuedBooking second = queue.submit(new BookingDto.CreateBookingRequest(), user);
+		BookingDto.BookingResponse response = new BookingDto.BookingResponse();
+		doAnswer(invocation -> {
+			List<QueuedBooking> batch = invocation.getArgument(0);
+			batch.forEach(queued -> queued.created(response));
+			return null;
+		}).when(bookingService).createQueuedBookings(anyList());
+
+		queue.start();
+		awaitCompletion(first, second);
+
+		assertEquals(QueuedBooking.SUCCEEDED, first.getStatus());
+		assertEquals(QueuedBooking.SUCCEEDED, second.getStatus());
+		verify(bookingService, never()).createBooking(first.getRequest(), user);
+		verify(bookingService, never()).createBooking(second.getRequest(), user);
+	}
+
+	@Test
+	void failedBatchIsRetriedOneByOne() throws Exception {
+		QueuedBooking rejected = queue.submit(new BookingDto.CreateBookingRequest(), user);
+		QueuedBooking created = queue.submit(new BookingDto.CreateBookingRequest(), user);
+		QueuedBooking invalid = queue.submit(new BookingDto.CreateBookingRequest(), user);
+		QueuedBooking broken = queue.submit(new BookingDto.CreateBookingRequest(), user);
+
+		// The batch rejects one booking, then its transaction fails as a whole
+		doAnswer(invocation -> {
+			List<QueuedBooking> batch = invocation.getArgument(0);
+			batch.get(0).rejected("Parking lot is full");
+			batch.get(1).created(new BookingDto.BookingResponse());
+			throw new CannotAcquireLockException("Deadlock found");
+		}).when(bookingService).createQueuedBookings(anyList());
+		BookingDto.BookingResponse response = new BookingDto.BookingResponse();
+		when(bookingService.createBooking(created.getRequest(), user)).thenReturn(response);
+		when(bookingService.createBooking(invalid.getRequest(), user))
+				.thenThrow(new IllegalArgumentException("Parking lot is closed"));
+		when(bookingService.createBooking(broken.getRequest(), user))
+				.thenThrow(new CannotAcquireLockException("Deadlock found"));
+
+		queue.start();
+		awaitCompletion(rejected, created, invalid, broken);
+
+		assertEquals(QueuedBooking.FAILED, rejected.getStatus());
+		assertEquals("Parking lot is full", rejected.getError());
+		verify(bookingService, never()).createBooking(rejected.getRequest(), user);
+
+		assertEquals(QueuedBooking.SUCCEEDED, created.getStatus());
+		assertSame(response, created.getResponse());
+		assertNull(created.getError());
+
+		assertEquals(QueuedBooking.FAILED, invalid.getStatus());
+		assertEquals("Parking lot is closed", invalid.getError());
+
+		// Unexpected failures are not shown to the client as a reason
+		assertEquals(QueuedBooking.FAILED, broken.getStatus());
+		assertEquals("Booking could not be created", broken.getError());
+	}
+
+	private static void awaitCompletion(QueuedBooking... tickets) throws InterruptedException {
+		long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+		for (QueuedBooking ticket : tickets) {
+			while (ticket.getCompletedAt() == null) {
+				if (System.nanoTime() > deadline) {
+					fail("Ticket " + ticket.getTicketId() + " was not processed");
+				}
+				Thread.sleep(10);
+			}
+		}
+	}
+}
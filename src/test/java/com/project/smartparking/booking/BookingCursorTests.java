@@ -0,0 +1,48 @@
+package com.project.smartparking.booking;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BookingCursorTests {
+
+	@Test
+	void encodedCursorDecodesToTheSamePosition() {
+		LocalDateTime createdAt = LocalDateTime.of(2025, 8, 19, 10, 30, 15, 123_000_000);
+		BookingCursor cursor = BookingCursor.decode(new BookingCursor(createdAt, 42L).encode());
+
+		assertEquals(createdAt, cursor.getCreatedAt());
+		assertEquals(42L, cursor.getId());
+	}
+
+	@Test
+	void encodedCursorIsUrlSafe() {
+		String encoded = new BookingCursor(LocalDateTime.of(2025, 1, 1, 0, 0), Long.MAX_VALUE).encode();
+
+		assertEquals(-1, encoded.indexOf('+'));
+		assertEquals(-1, encoded.indexOf('/'));
+		assertEquals(-1, encoded.indexOf('='));
+	}
+
+	@Test
+	void malformedCursorsAreRejected() {
+		assertInvalid("not base64!");
+		assertInvalid(encode("2025-08-19T10:30"));
+		assertInvalid(encode("yesterday|42"));
+		assertInvalid(encode("2025-08-19T10:30|forty-two"));
+	}
+
+	private static void assertInvalid(String cursor) {
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> BookingCursor.decode(cursor));
+		assertEquals("Invalid cursor", e.getMessage());
+	}
+
+	private static String encode(String raw) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+}
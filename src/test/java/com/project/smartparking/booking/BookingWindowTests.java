@@ -0,0 +1,35 @@
+package com.project.smartparking.booking;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BookingWindowTests {
+
+	@Test
+	void peakCountsStoredWindowsOnlyWhereAnAddedWindowIs() {
+		List<BookingWindow> stored = List.of(window(8, 10), window(9, 12));
+
+		assertEquals(3, BookingWindow.peakWithin(stored, List.of(window(9, 10))));
+		assertEquals(2, BookingWindow.peakWithin(stored, List.of(window(10, 11))));
+		assertEquals(1, BookingWindow.peakWithin(stored, List.of(window(12, 13))));
+	}
+
+	@Test
+	void windowsEndingWhereAnotherStartsDoNotOverlap() {
+		assertEquals(1, BookingWindow.peakWithin(List.of(window(8, 9)), List.of(window(9, 10))));
+		assertEquals(2, BookingWindow.peakWithin(List.of(window(1, 20)), List.of(window(9, 10), window(10, 11))));
+	}
+
+	@Test
+	void addedWindowsCountAgainstEachOther() {
+		assertEquals(2, BookingWindow.peakWithin(List.of(), List.of(window(9, 10), window(9, 10))));
+	}
+
+	private static BookingWindow window(int startHour, int endHour) {
+		return new BookingWindow(LocalDateTime.of(2030, 1, 1, startHour, 0), LocalDateTime.of(2030, 1, 1, endHour, 0));
+	}
+}
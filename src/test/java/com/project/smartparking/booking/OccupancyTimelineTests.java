@@ -0,0 +1,93 @@
+package com.project.smartparking.booking;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OccupancyTimelineTests {
+
+	@Test
+	void peakIsTheHighestOverlapInTheRange() {
+		OccupancyTimeline timeline = new OccupancyTimeline(8);
+		timeline.advanceTo(100);
+		timeline.add(102, 104, 1);
+		timeline.add(103, 106, 1);
+
+		assertEquals(2, timeline.peak());
+		assertEquals(1, timeline.peak(100, 102));
+		assertEquals(2, timeline.peak(104, 107));
+		assertEquals(1, timeline.peak(105, 106));
+		assertEquals(0, timeline.peak(107, 107));
+	}
+
+	@Test
+	void removingAWindowUndoesIt() {
+		OccupancyTimeline timeline = new OccupancyTimeline(8);
+		timeline.advanceTo(100);
+		timeline.add(101, 105, 1);
+		timeline.add(101, 105, -1);
+
+		assertEquals(0, timeline.peak());
+	}
+
+	@Test
+	void windowsAreClippedToTheHorizon() {
+		OccupancyTimeline timeline = new OccupancyTimeline(8);
+		timeline.advanceTo(100);
+		timeline.add(90, 200, 1);
+
+		assertEquals(1, timeline.peak(100, 107));
+		assertEquals(0, timeline.peak(50, 99));
+		assertEquals(0, timeline.peak(108, 120));
+	}
+
+	@Test
+	void windowsMayWrapAroundTheEndOfTheRing() {
+		OccupancyTimeline timeline = new OccupancyTimeline(8);
+		// Buckets 101..108 sit at ring positions 5, 6, 7, 0, 1, 2, 3, 4
+		timeline.advanceTo(101);
+		timeline.add(102, 105, 1);
+
+		assertEquals(0, timeline.peak(101, 101));
+		assertEquals(1, timeline.peak(102, 102));
+		assertEquals(1, timeline.peak(104, 104));
+		assertEquals(1, timeline.peak(101, 108));
+		assertEquals(0, timeline.peak(106, 108));
+	}
+
+	@Test
+	void bucketsLeftBehindAreReusedEmpty() {
+		OccupancyTimeline timeline = new OccupancyTimeline(8);
+		timeline.advanceTo(100);
+		timeline.add(100, 103, 2);
+		timeline.add(105, 105, 1);
+
+		timeline.advanceTo(104);
+		assertEquals(104, timeline.base());
+		assertEquals(111, timeline.last());
+		// 108..111 reuse the ring positions of 100..103
+		assertEquals(0, timeline.peak(108, 111));
+		assertEquals(1, timeline.peak());
+	}
+
+	@Test
+	void jumpingPastTheWholeHorizonClearsIt() {
+		OccupancyTimeline timeline = new OccupancyTimeline(8);
+		timeline.advanceTo(0);
+		timeline.add(0, 7, 3);
+
+		timeline.advanceTo(100);
+		assertEquals(0, timeline.peak());
+	}
+
+	@Test
+	void theClockNeverMovesBackwards() {
+		OccupancyTimeline timeline = new OccupancyTimeline(8);
+		timeline.advanceTo(100);
+		timeline.add(100, 100, 1);
+
+		timeline.advanceTo(90);
+		assertEquals(100, timeline.base());
+		assertEquals(1, timeline.peak(100, 100));
+	}
+}
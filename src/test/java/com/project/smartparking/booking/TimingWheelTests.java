@@ -0,0 +1,63 @@
+package com.project.smartparking.booking;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTests {
+
+	// 10 ms ticks, 8 buckets: the first level covers 80 ms
+	private final TimingWheel<String> wheel = new TimingWheel<>(10, 8, 0);
+
+	@Test
+	void timersFireOnceTheirTickComes() {
+		assertNotNull(wheel.add(25, "a"));
+		assertNotNull(wheel.add(45, "b"));
+
+		assertTrue(wheel.advanceTo(19).isEmpty());
+		assertEquals(List.of("a"), wheel.advanceTo(30));
+		assertEquals(List.of("b"), wheel.advanceTo(50));
+		assertTrue(wheel.advanceTo(100).isEmpty());
+	}
+
+	@Test
+	void aDeadlineWithinTheCurrentTickIsAlreadyDue() {
+		assertNull(wheel.add(5, "now"));
+	}
+
+	@Test
+	void cancelledTimersDoNotFire() {
+		TimingWheel.Timer<String> timer = wheel.add(25, "cancelled");
+		wheel.add(25, "kept");
+		timer.cancel();
+
+		assertEquals(List.of("kept"), wheel.advanceTo(30));
+	}
+
+	@Test
+	void farDeadlinesCascadeDownToTheirTick() {
+		// Beyond the first two levels (80 ms and 640 ms)
+		wheel.add(1000, "far");
+		wheel.add(200, "near");
+
+		assertEquals(List.of("near"), wheel.advanceTo(200));
+		assertTrue(wheel.advanceTo(999).isEmpty());
+		assertEquals(List.of("far"), wheel.advanceTo(1000));
+	}
+
+	@Test
+	void oneLargeStepFiresEverythingDue() {
+		wheel.add(30, "a");
+		wheel.add(300, "b");
+		wheel.add(3000, "c");
+
+		List<String> due = wheel.advanceTo(5000);
+		assertEquals(3, due.size());
+		assertTrue(due.containsAll(List.of("a", "b", "c")));
+	}
+}
@@ -0,0 +1,75 @@
+package com.project.smartparking.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Measures BCrypt latency and throughput per cost factor on this host, the numbers PasswordConfig
+ * calibrates against: the median time of one hash, hashes/sec on one core, and hashes/sec with one
+ * thread per core. Run with
+ * mvn test -Dtest=BcryptBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BcryptBenchmark {
+
+	private static final int MIN_COST = 10;
+	private static final int MAX_COST = 14;
+	private static final int SAMPLES = 5;
+	private static final int HASHES_PER_THREAD = 4;
+
+	@Test
+	void compareCosts() throws Exception {
+		int cores = Runtime.getRuntime().availableProcessors();
+		System.out.printf("%d cores%n", cores);
+		for (int cost = MIN_COST; cost <= MAX_COST; cost++) {
+			BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(cost);
+			encoder.encode("warm-up");
+
+			double millis = medianMillis(encoder);
+			double parallel = parallelHashesPerSecond(encoder, cores);
+			System.out.printf("cost %2d: %7.1f ms per hash, %6.1f hashes/sec per core, %7.1f hashes/sec on %d threads%n",
+					cost, millis, 1000 / millis, parallel, cores);
+		}
+	}
+
+	private static double medianMillis(BCryptPasswordEncoder encoder) {
+		long[] nanos = new long[SAMPLES];
+		for (int i = 0; i < SAMPLES; i++) {
+			long start = System.nanoTime();
+			encoder.encode("benchmark");
+			nanos[i] = System.nanoTime() - start;
+		}
+		Arrays.sort(nanos);
+		return nanos[SAMPLES / 2] / 1_000_000.0;
+	}
+
+	private static double parallelHashesPerSecond(BCryptPasswordEncoder encoder, int threads) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			long start = System.nanoTime();
+			List<Future<?>> hashes = new ArrayList<>(threads);
+			for (int i = 0; i < threads; i++) {
+				hashes.add(executor.submit(() -> {
+					for (int j = 0; j < HASHES_PER_THREAD; j++) {
+						encoder.encode("benchmark");
+					}
+				}));
+			}
+			for (Future<?> hash : hashes) {
+				hash.get();
+			}
+			double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+			return threads * HASHES_PER_THREAD / seconds;
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
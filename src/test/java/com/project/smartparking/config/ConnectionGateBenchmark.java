@@ -0,0 +1,115 @@
+package com.project.smartparking.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares the platform-thread mode with the virtual-thread mode, with and without ConnectionGateDataSource,
+ * on a simulated blocking workload: each request spends time on a slow client and then holds one of a
+ * fixed number of pooled connections for a query. Run with
+ * mvn test -Dtest=ConnectionGateBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ConnectionGateBenchmark {
+
+	private static final int REQUESTS = 5_000;
+	private static final int POOL_SIZE = 10;
+	private static final int RESERVED = 2;
+	// Tomcat's default maximum of request threads
+	private static final int PLATFORM_THREADS = 200;
+	private static final Duration CLIENT_TIME = Duration.ofMillis(100);
+	private static final Duration QUERY_TIME = Duration.ofMillis(5);
+	private static final Duration POOL_TIMEOUT = Duration.ofSeconds(2);
+
+	@Test
+	void compareModes() throws Exception {
+		report("platform threads, no gate", Executors.newFixedThreadPool(PLATFORM_THREADS), false);
+		report("virtual threads, no gate", Executors.newVirtualThreadPerTaskExecutor(), false);
+		report("virtual threads, gate", Executors.newVirtualThreadPerTaskExecutor(), true);
+	}
+
+	private void report(String mode, ExecutorService executor, boolean gated) throws Exception {
+		SimulatedPool pool = new SimulatedPool(POOL_SIZE, POOL_TIMEOUT);
+		DataSource dataSource = gated
+				? new ConnectionGateDataSource(pool, POOL_SIZE - RESERVED, Duration.ofSeconds(30))
+				: pool;
+		AtomicInteger failed = new AtomicInteger();
+
+		long start = System.nanoTime();
+		List<Future<?>> requests = new ArrayList<>(REQUESTS);
+		for (int i = 0; i < REQUESTS; i++) {
+			requests.add(executor.submit(() -> {
+				try {
+					Thread.sleep(CLIENT_TIME);
+					try (Connection connection = dataSource.getConnection()) {
+						Thread.sleep(QUERY_TIME);
+					}
+				} catch (SQLException e) {
+					failed.incrementAndGet();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return null;
+			}));
+		}
+		for (Future<?> request : requests) {
+			request.get();
+		}
+		double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+		executor.shutdown();
+
+		System.out.printf("%-28s %6.0f requests/sec, %5d connection timeouts, %.1f s total%n",
+				mode, REQUESTS / seconds, failed.get(), seconds);
+	}
+
+	// Stands in for Hikari: a fixed number of connections and a bounded wait for one
+	private static final class SimulatedPool extends AbstractDataSource {
+		private final Semaphore connections;
+		private final Duration timeout;
+
+		private SimulatedPool(int size, Duration timeout) {
+			this.connections = new Semaphore(size);
+			this.timeout = timeout;
+		}
+
+		@Override
+		public Connection getConnection() throws SQLException {
+			try {
+				if (!connections.tryAcquire(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+					throw new SQLTransientConnectionException("Connection is not available, request timed out");
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new SQLTransientConnectionException("Interrupted", e);
+			}
+			return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+					(proxy, method, args) -> {
+						if ("close".equals(method.getName())) {
+							connections.release();
+						}
+						return null;
+					});
+		}
+
+		@Override
+		public Connection getConnection(String username, String password) throws SQLException {
+			return getConnection();
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package com.project.smartparking.parkinglot;
+
+import com.project.smartparking.repository.ParkingSlot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LotSearchIndexTests {
+
+	private final LotSearchIndex index = new LotSearchIndex();
+
+	@BeforeEach
+	void setUp() {
+		index.put(lot(1L, "Central Plaza", "1 Oak Road"));
+		index.put(lot(2L, "Airport Parking", "Terminal Road"));
+		index.put(lot(3L, "Main Garage", "7 Elm Street"));
+		index.put(lot(4L, "Oak Court", "5 Main Street"));
+	}
+
+	@Test
+	void lastWordMatchesAsAPrefix() {
+		assertEquals(List.of(1L), ids(index.search("cent", 10)));
+		assertEquals(List.of(2L), ids(index.search("airport park", 10)));
+	}
+
+	@Test
+	void smallTyposStillMatch() {
+		assertEquals(List.of(1L), ids(index.search("centarl", 10)));
+	}
+
+	@Test
+	void everyQueryWordMustMatch() {
+		assertTrue(index.search("central airport", 10).isEmpty());
+		assertTrue(index.search("zzz", 10).isEmpty());
+	}
+
+	@Test
+	void nameMatchesOutrankAddressMatches() {
+		assertEquals(List.of(3L, 4L), ids(index.search("main", 10)));
+		assertEquals(List.of(4L, 1L), ids(index.search("oak", 10)));
+	}
+
+	@Test
+	void resultsAreLimited() {
+		assertEquals(1, index.search("road", 1).size());
+	}
+
+	@Test
+	void putReplacesAndRemoveDropsALot() {
+		index.put(lot(1L, "Harbour View", "1 Oak Road"));
+		assertTrue(index.search("central", 10).isEmpty());
+		assertEquals(List.of(1L), ids(index.search("harbour", 10)));
+
+		index.remove(1L);
+		assertTrue(index.search("harbour", 10).isEmpty());
+	}
+
+	private static List<Long> ids(List<ParkingLotDto.ParkingLotSearchResult> results) {
+		return results.stream().map(ParkingLotDto.ParkingLotSearchResult::getId).toList();
+	}
+
+	private static ParkingSlot lot(Long id, String name, String address) {
+		ParkingSlot lot = new ParkingSlot();
+		lot.setId(id);
+		lot.setName(name);
+		lot.setAddress(address);
+		lot.setTotalSlots(10);
+		lot.setBookedSlots(0);
+		lot.setIsOpen(true);
+		return lot;
+	}
+}
@@ -0,0 +1,44 @@
+package com.project.smartparking.parkinglot;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParkingLotCursorTests {
+
+	@Test
+	void encodedCursorDecodesToTheSamePosition() {
+		ParkingLotCursor cursor = ParkingLotCursor.decode(new ParkingLotCursor("Central Plaza", 7L).encode());
+
+		assertEquals("Central Plaza", cursor.getKey());
+		assertEquals(7L, cursor.getId());
+	}
+
+	@Test
+	void keysMayContainTheSeparator() {
+		ParkingLotCursor cursor = ParkingLotCursor.decode(new ParkingLotCursor("North | South", 7L).encode());
+
+		assertEquals("North | South", cursor.getKey());
+		assertEquals(7L, cursor.getId());
+	}
+
+	@Test
+	void malformedCursorsAreRejected() {
+		assertInvalid("not base64!");
+		assertInvalid(encode("Central Plaza"));
+		assertInvalid(encode("Central Plaza|seven"));
+	}
+
+	private static void assertInvalid(String cursor) {
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> ParkingLotCursor.decode(cursor));
+		assertEquals("Invalid cursor", e.getMessage());
+	}
+
+	private static String encode(String raw) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+}
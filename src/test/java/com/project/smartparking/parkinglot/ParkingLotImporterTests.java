@@ -0,0 +1,191 @@
+package com.project.smartparking.parkinglot;
+
+import com.project.smartparking.booking.BookingStats;
+import com.project.smartparking.booking.SlotInventory;
+import com.project.smartparking.repository.ParkingSlot;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ParkingLotImporterTests {
+
+	private static final String HEADER = "name,address,totalSlots,isOpen\n";
+
+	@Mock
+	private JdbcTemplate jdbcTemplate;
+
+	@Mock
+	private TransactionTemplate transactionTemplate;
+
+	@Mock
+	private ParkingLotRepository parkingLotRepository;
+
+	@Mock
+	private BookingStats bookingStats;
+
+	@Mock
+	private SlotInventory slotInventory;
+
+	@Mock
+	private LotLocationIndex lotLocationIndex;
+
+	@Mock
+	private LotSearchIndex lotSearchIndex;
+
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
+	@InjectMocks
+	private ParkingLotImporter importer;
+
+	// Names of the lots that reached the database, in order
+	private final List<String> inserted = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(importer, "validator", Validation.buildDefaultValidatorFactory().getValidator());
+		ReflectionTestUtils.setField(importer, "batchSize", 2);
+		when(parkingLotRepository.findAllNames()).thenReturn(List.of());
+
+		// Batches run their callback directly; the rows read back are the ones just inserted,
+		// and a batch holding a lot named "Bad" fails as the database would reject it
+		lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+				invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+		lenient().when(parkingLotRepository.findByNameIn(anyCollection())).thenAnswer(invocation -> {
+			Collection<String> names = invocation.getArgument(0);
+			if (names.contains("Bad")) {
+				throw new DataIntegrityViolationException("Duplicate entry 'Bad'");
+			}
+			List<ParkingSlot> lots = new ArrayList<>();
+			for (String name : names) {
+				inserted.add(name);
+				ParkingSlot lot = new ParkingSlot();
+				lot.setId((long) inserted.size());
+				lot.setName(name);
+				lots.add(lot);
+			}
+			return lots;
+		});
+	}
+
+	@Test
+	void quotedFieldsMaySpanLinesAndEscapeQuotes() throws IOException {
+		ParkingLotDto.ImportResult result = importCsv(HEADER +
+				"\"North \"\"A\"\"\",1 Main St,10,true\n" +
+				"\"South\nAnnex\",\"2 Long Road, Unit 4\",5,false\n" +
+				"East,3 Short St,4,TRUE\n");
+
+		assertEquals(3, result.getImported());
+		assertEquals(0, result.getFailed());
+		assertEquals(List.of("North \"A\"", "South\nAnnex", "East"), inserted);
+	}
+
+	@Test
+	void errorsReportTheLineTheRecordStartsOn() throws IOException {
+		ParkingLotDto.ImportResult result = importCsv(HEADER +
+				"\"Two\nLines\",1 Main St,10,true\n" +
+				"West,4 West St,many,true\n" +
+				"\n" +
+				"Shut,5 Shut St,3,maybe\n");
+
+		assertEquals(1, result.getImported());
+		assertEquals(2, result.getFailed());
+		ParkingLotDto.ImportError badNumber = result.getErrors().get(0);
+		assertEquals(4, badNumber.getLine());
+		assertEquals("West", badNumber.getName());
+		assertTrue(badNumber.getMessage().startsWith("Invalid value"));
+		ParkingLotDto.ImportError badBoolean = result.getErrors().get(1);
+		assertEquals(6, badBoolean.getLine());
+		assertTrue(badBoolean.getMessage().contains("isOpen must be true or false"));
+	}
+
+	@Test
+	void unterminatedQuoteIsReportedOnItsFirstLine() throws IOException {
+		ParkingLotDto.ImportResult result = importCsv(HEADER +
+				"Good,1 Main St,3,true\n" +
+				"\"Broken,2 Main St,3,true\n" +
+				"Swallowed,3 Main St,3,true\n");
+
+		assertEquals(1, result.getImported());
+		assertEquals(1, result.getFailed());
+		assertEquals(3, result.getErrors().get(0).getLine());
+		assertEquals("Unterminated quoted field", result.getErrors().get(0).getMessage());
+		assertEquals(List.of("Good"), inserted);
+	}
+
+	@Test
+	void missingRequiredColumnIsRejected() {
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+				() -> importCsv("name,address,totalSlots\nLot,1 Main St,3\n"));
+		assertEquals("CSV header is missing the 'isopen' column", e.getMessage());
+	}
+
+	@Test
+	void duplicateNamesInTheUploadAreRejected() throws IOException {
+		ParkingLotDto.ImportResult result = importCsv(HEADER +
+				"Plaza,1 Main St,3,true\n" +
+				"PLAZA,2 Main St,3,true\n");
+
+		assertEquals(1, result.getImported());
+		assertEquals("Parking lot with name 'PLAZA' already exists", result.getErrors().get(0).getMessage());
+	}
+
+	@Test
+	void rejectedBatchIsRetriedRowByRow() throws IOException {
+		ParkingLotDto.ImportResult result = importCsv(HEADER +
+				"First,1 Main St,3,true\n" +
+				"Bad,2 Main St,3,true\n" +
+				"Third,3 Main St,3,true\n");
+
+		assertEquals(2, result.getImported());
+		assertEquals(1, result.getFailed());
+		assertEquals(3, result.getErrors().get(0).getLine());
+		assertEquals("Not saved: Duplicate entry 'Bad'", result.getErrors().get(0).getMessage());
+		assertEquals(List.of("First", "Third"), inserted);
+	}
+
+	@Test
+	void onlyTheFirstErrorsAreListedButAllAreCounted() throws IOException {
+		StringBuilder csv = new StringBuilder(HEADER);
+		int rows = ParkingLotDto.ImportResult.MAX_REPORTED_ERRORS + 5;
+		for (int i = 0; i < rows; i++) {
+			csv.append("Lot ").append(i).append(",1 Main St,0,true\n");
+		}
+
+		ParkingLotDto.ImportResult result = importCsv(csv.toString());
+
+		assertEquals(0, result.getImported());
+		assertEquals(rows, result.getFailed());
+		assertEquals(ParkingLotDto.ImportResult.MAX_REPORTED_ERRORS, result.getErrors().size());
+	}
+
+	private ParkingLotDto.ImportResult importCsv(String csv) throws IOException {
+		return importer.importLots(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), true);
+	}
+}